@@ -43,4 +43,20 @@ public abstract class AbstractGeometryCollection<T extends Geometry> extends Geo
         }
         return numberOfCoordinates;
     }
+
+    @Override
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        for(Geometry geometry : this.geometries) {
+            geometry.forEachCoordinate(consumer);
+        }
+    }
+
+    @Override
+    protected Envelope computeEnvelope() {
+        Envelope.Builder builder = new Envelope.Builder();
+        for(Geometry geometry : this.geometries) {
+            builder.add(geometry.getEnvelope());
+        }
+        return builder.build();
+    }
 }
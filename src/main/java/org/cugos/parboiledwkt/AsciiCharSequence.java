@@ -0,0 +1,72 @@
+package org.cugos.parboiledwkt;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A CharSequence view of ASCII bytes, so WKT can be parsed without decoding it into a String.
+ * Each byte is one char, bytes outside of ASCII become chars between 128 and 255 and never match the WKT grammar.
+ * @author Jared Erickson
+ */
+final class AsciiCharSequence implements CharSequence {
+
+    /**
+     * The bytes from position 0 to the limit
+     */
+    private final ByteBuffer bytes;
+
+    /**
+     * Create a new AsciiCharSequence
+     * @param bytes The bytes between the position and the limit are the characters.
+     * The ByteBuffer's position is not changed.
+     */
+    AsciiCharSequence(ByteBuffer bytes) {
+        this.bytes = bytes.slice();
+    }
+
+    /**
+     * Create a new AsciiCharSequence
+     * @param bytes The byte array
+     * @param offset The offset of the first character
+     * @param length The number of characters
+     */
+    AsciiCharSequence(byte[] bytes, int offset, int length) {
+        this(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    @Override
+    public int length() {
+        return bytes.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(toCharArray(start, end));
+    }
+
+    /**
+     * Get the characters
+     * @return A new char array
+     */
+    char[] toCharArray() {
+        return toCharArray(0, length());
+    }
+
+    private char[] toCharArray(int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = charAt(i);
+        }
+        return chars;
+    }
+
+    @Override
+    public String toString() {
+        return new String(toCharArray());
+    }
+
+}
@@ -1,6 +1,5 @@
 package org.cugos.parboiledwkt;
 
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -10,9 +9,9 @@ import java.util.List;
 public class CircularString extends Curve {
 
     /**
-     * The List of Coordinates
+     * The CoordinateSequence
      */
-    private final List<Coordinate> coordinates;
+    private final CoordinateSequence coordinates;
 
     /**
      * Create a new CircularString
@@ -21,8 +20,18 @@ public class CircularString extends Curve {
      * @param srid The SRID
      */
     public CircularString(List<Coordinate> coordinates, Dimension dimension, String srid) {
+        this(CoordinateSequence.create(coordinates, dimension), dimension, srid);
+    }
+
+    /**
+     * Create a new CircularString
+     * @param coordinates The CoordinateSequence
+     * @param dimension The Dimension
+     * @param srid The SRID
+     */
+    public CircularString(CoordinateSequence coordinates, Dimension dimension, String srid) {
         super(dimension, srid);
-        this.coordinates = Collections.unmodifiableList(coordinates);
+        this.coordinates = coordinates;
     }
 
     /**
@@ -35,11 +44,19 @@ public class CircularString extends Curve {
     }
 
     /**
-     * Get the List of Coordinates
+     * Get an unmodifiable List view of the Coordinates
      * @return The List of Coordinates
      */
     public List<Coordinate> getCoordinates() {
-        return Collections.unmodifiableList(coordinates);
+        return coordinates.asList();
+    }
+
+    /**
+     * Get the CoordinateSequence
+     * @return The CoordinateSequence
+     */
+    public CoordinateSequence getCoordinateSequence() {
+        return coordinates;
     }
 
     @Override
@@ -49,7 +66,96 @@ public class CircularString extends Curve {
 
     @Override
     public int getNumberOfCoordinates() {
-        return this.coordinates.size();
+        return coordinates.size();
+    }
+
+    @Override
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        coordinates.forEach(consumer);
     }
 
+    /**
+     * Compute the Envelope of the Coordinates and of the arcs between them.  Each arc goes through three
+     * Coordinates, and where it crosses the leftmost, rightmost, lowest, or highest point of its circle
+     * that point is added too.
+     * @return The Envelope
+     */
+    @Override
+    protected Envelope computeEnvelope() {
+        Envelope.Builder builder = new Envelope.Builder();
+        coordinates.forEach(builder);
+        for (int i = 0; i + 2 < coordinates.size(); i += 2) {
+            addArcExtremes(builder, coordinates.getX(i), coordinates.getY(i),
+                    coordinates.getX(i + 1), coordinates.getY(i + 1),
+                    coordinates.getX(i + 2), coordinates.getY(i + 2));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Add the points where an arc crosses the leftmost, rightmost, lowest, or highest point of its circle
+     * @param builder The Envelope.Builder
+     * @param x1 The X value of the start of the arc
+     * @param y1 The Y value of the start of the arc
+     * @param x2 The X value of a point along the arc
+     * @param y2 The Y value of a point along the arc
+     * @param x3 The X value of the end of the arc
+     * @param y3 The Y value of the end of the arc
+     */
+    static void addArcExtremes(Envelope.Builder builder, double x1, double y1, double x2, double y2, double x3, double y3) {
+        double cx;
+        double cy;
+        boolean fullCircle = x1 == x3 && y1 == y3;
+        if (fullCircle) {
+            // The middle point is opposite the start and end
+            cx = (x1 + x2) / 2;
+            cy = (y1 + y2) / 2;
+        } else {
+            double d = 2 * (x1 * (y2 - y3) + x2 * (y3 - y1) + x3 * (y1 - y2));
+            if (d == 0 || Double.isNaN(d)) {
+                // The points are on a straight line
+                return;
+            }
+            double s1 = x1 * x1 + y1 * y1;
+            double s2 = x2 * x2 + y2 * y2;
+            double s3 = x3 * x3 + y3 * y3;
+            cx = (s1 * (y2 - y3) + s2 * (y3 - y1) + s3 * (y1 - y2)) / d;
+            cy = (s1 * (x3 - x2) + s2 * (x1 - x3) + s3 * (x2 - x1)) / d;
+        }
+        double r = Math.hypot(x1 - cx, y1 - cy);
+        double a1 = Math.atan2(y1 - cy, x1 - cx);
+        double a2 = Math.atan2(y2 - cy, x2 - cx);
+        double a3 = Math.atan2(y3 - cy, x3 - cx);
+        // Whether the arc goes counter clockwise, reaching the middle point before the end
+        boolean ccw = angle(a1, a2) < angle(a1, a3);
+        // The rightmost, highest, leftmost, and lowest points of the circle
+        double[] angles = {0, Math.PI / 2, Math.PI, -Math.PI / 2};
+        double[] dx = {r, 0, -r, 0};
+        double[] dy = {0, r, 0, -r};
+        for (int i = 0; i < angles.length; i++) {
+            double q = angles[i];
+            boolean onArc = fullCircle
+                    || (ccw ? angle(a1, q) <= angle(a1, a3) : angle(q, a1) <= angle(a3, a1));
+            if (onArc) {
+                builder.coordinate(cx + dx[i], cy + dy[i], Double.NaN, Double.NaN);
+            }
+        }
+    }
+
+    /**
+     * Get the counter clockwise angle from one angle to another
+     * @param from The angle to start from
+     * @param to The angle to go to
+     * @return The angle between 0 and 2 PI
+     */
+    private static double angle(double from, double to) {
+        double angle = to - from;
+        while (angle < 0) {
+            angle += 2 * Math.PI;
+        }
+        while (angle >= 2 * Math.PI) {
+            angle -= 2 * Math.PI;
+        }
+        return angle;
+    }
 }
@@ -55,4 +55,20 @@ public class CompoundCurve extends Curve {
         }
         return numberOfCoordinates;
     }
+
+    @Override
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        for(Curve curve : curves) {
+            curve.forEachCoordinate(consumer);
+        }
+    }
+
+    @Override
+    protected Envelope computeEnvelope() {
+        Envelope.Builder builder = new Envelope.Builder();
+        for(Curve curve : curves) {
+            builder.add(curve.getEnvelope());
+        }
+        return builder.build();
+    }
 }
@@ -26,6 +26,11 @@ public final class Coordinate {
      */
     private final double m;
 
+    /**
+     * The Dimension, which depends on which values are not NaN
+     */
+    private final Dimension dimension;
+
     /**
      * Creae a new Coordinate
      * @param x The x value
@@ -38,6 +43,7 @@ public final class Coordinate {
         this.y = y;
         this.z = z;
         this.m = m;
+        this.dimension = Dimension.get(!Double.isNaN(z), !Double.isNaN(m));
     }
 
     /**
@@ -130,15 +136,7 @@ public final class Coordinate {
      * @return The Dimension
      */
     public Dimension getDimension() {
-        if (!Double.isNaN(m) && !Double.isNaN(z)) {
-            return Dimension.ThreeMeasured;
-        } else if (!Double.isNaN(z)) {
-            return Dimension.Three;
-        } else if (!Double.isNaN(m)) {
-            return Dimension.TwoMeasured;
-        } else {
-            return Dimension.Two;
-        }
+        return dimension;
     }
 
     /**
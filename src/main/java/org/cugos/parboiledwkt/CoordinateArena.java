@@ -0,0 +1,361 @@
+package org.cugos.parboiledwkt;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A CoordinateSequenceFactory that stores coordinates off the heap in direct ByteBuffers, so a large batch
+ * of Geometries doesn't add millions of objects for the garbage collector to trace.
+ * Coordinates are packed one after another in large chunks of direct memory, and WKBReader writes them straight
+ * into a chunk as it reads them.  Closing the CoordinateArena frees every chunk at once, after which reading the
+ * Geometries created with it throws an IllegalStateException.
+ * <pre>
+ * CoordinateArena arena = new CoordinateArena();
+ * WKBReader reader = new WKBReader(arena);
+ * ...
+ * arena.close();
+ * </pre>
+ * A CoordinateArena is thread safe, but it must only be closed when no other thread is reading or creating
+ * its Geometries, because reading memory that has been freed can crash the JVM.
+ * @author Jared Erickson
+ */
+public class CoordinateArena implements CoordinateSequenceFactory, Closeable {
+
+    /**
+     * The default size of a chunk in bytes
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * The sun.misc.Unsafe that frees direct ByteBuffers on Java 9 and later, or null
+     */
+    private static final Object UNSAFE;
+
+    /**
+     * The sun.misc.Unsafe.invokeCleaner(ByteBuffer) method, or null on Java 8
+     */
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+        } catch (Exception e) {
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * The size of a chunk in bytes
+     */
+    private final int chunkSize;
+
+    /**
+     * The chunks of direct memory or null when the CoordinateArena has been closed.  CoordinateSequences only
+     * reach their chunk through this array, so closing drops every reference to the direct memory at once.
+     * The array is replaced whenever a chunk is added so it can be read without locking.
+     */
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+
+    /**
+     * The index of the chunk that is being filled or -1
+     */
+    private int chunk = -1;
+
+    /**
+     * The number of bytes used in all chunks
+     */
+    private long size;
+
+    /**
+     * Create a new CoordinateArena with 1 MB chunks
+     */
+    public CoordinateArena() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Create a new CoordinateArena
+     * @param chunkSize The size of each chunk of direct memory in bytes.  Larger CoordinateSequences get a chunk of their own.
+     */
+    public CoordinateArena(int chunkSize) {
+        if (chunkSize < 32) {
+            throw new IllegalArgumentException("The chunk size must be at least 32 bytes");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public synchronized CoordinateSequence create(double[] values, Dimension dimension) {
+        int index = reserve(8L * values.length);
+        ByteBuffer buffer = chunks[index];
+        int offset = buffer.position() - values.length * 8;
+        for (int i = 0; i < values.length; i++) {
+            buffer.putDouble(offset + i * 8, values[i]);
+        }
+        return new DirectCoordinateSequence(this, index, offset, values.length / dimension.getNumberOfValues(), dimension);
+    }
+
+    /**
+     * Create a CoordinateSequence.Builder that writes a number of Coordinates straight into direct memory,
+     * so no heap array is needed for them
+     * @param count The number of Coordinates
+     * @param dimension The Dimension of every Coordinate
+     * @return A CoordinateSequence.Builder
+     * @throws IllegalStateException if the CoordinateArena has been closed
+     */
+    synchronized CoordinateSequence.Builder builder(int count, Dimension dimension) {
+        int stride = dimension.getNumberOfValues() * 8;
+        int index = reserve((long) count * stride);
+        return new DirectBuilder(this, index, chunks[index].position() - count * stride, count, dimension);
+    }
+
+    /**
+     * Get the number of bytes used by the CoordinateSequences
+     * @return The number of bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of bytes of direct memory that have been allocated
+     * @return The number of bytes
+     */
+    public synchronized long getCapacity() {
+        long capacity = 0;
+        if (chunks != null) {
+            for (ByteBuffer buffer : chunks) {
+                capacity += buffer.capacity();
+            }
+        }
+        return capacity;
+    }
+
+    /**
+     * Whether the CoordinateArena has been closed
+     * @return Whether the CoordinateArena has been closed
+     */
+    public boolean isClosed() {
+        return chunks == null;
+    }
+
+    /**
+     * Free all of the direct memory at once.  The Geometries created with this CoordinateArena can't be read
+     * afterwards.  No other thread may be reading or creating them while the CoordinateArena is closed.
+     * If the JVM doesn't allow freeing direct memory right away, it is freed when the garbage collector
+     * finds that nothing refers to it.
+     */
+    @Override
+    public synchronized void close() {
+        ByteBuffer[] buffers = chunks;
+        chunks = null;
+        chunk = -1;
+        size = 0;
+        if (buffers != null) {
+            for (ByteBuffer buffer : buffers) {
+                free(buffer);
+            }
+        }
+    }
+
+    /**
+     * Get a chunk of direct memory
+     * @param index The index of the chunk
+     * @return The chunk
+     * @throws IllegalStateException if the CoordinateArena has been closed
+     */
+    ByteBuffer getChunk(int index) {
+        ByteBuffer[] buffers = chunks;
+        if (buffers == null) {
+            throw new IllegalStateException("The CoordinateArena has been closed");
+        }
+        return buffers[index];
+    }
+
+    /**
+     * Throw an IllegalStateException if the CoordinateArena has been closed
+     */
+    private void checkOpen() {
+        if (chunks == null) {
+            throw new IllegalStateException("The CoordinateArena has been closed");
+        }
+    }
+
+    /**
+     * Reserve room for values at the position of a chunk and move the position past it
+     * @param bytes The number of bytes
+     * @return The index of the chunk
+     * @throws IllegalStateException if the CoordinateArena has been closed
+     * @throws IllegalArgumentException if there are more bytes than a ByteBuffer can hold
+     */
+    private int reserve(long bytes) {
+        checkOpen();
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A CoordinateSequence can't have more than " + Integer.MAX_VALUE + " bytes");
+        }
+        int index;
+        if (bytes > chunkSize) {
+            index = allocate((int) bytes);
+        } else {
+            if (chunk < 0 || chunks[chunk].remaining() < bytes) {
+                chunk = allocate(chunkSize);
+            }
+            index = chunk;
+        }
+        ByteBuffer buffer = chunks[index];
+        // Call Buffer.position(int) because ByteBuffer.position(int) doesn't exist on Java 8
+        ((Buffer) buffer).position(buffer.position() + (int) bytes);
+        size += bytes;
+        return index;
+    }
+
+    /**
+     * Allocate a chunk of direct memory
+     * @param bytes The number of bytes
+     * @return The index of the new chunk, a direct ByteBuffer in the native byte order
+     */
+    private int allocate(int bytes) {
+        ByteBuffer[] buffers = new ByteBuffer[chunks.length + 1];
+        System.arraycopy(chunks, 0, buffers, 0, chunks.length);
+        buffers[chunks.length] = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        chunks = buffers;
+        return buffers.length - 1;
+    }
+
+    /**
+     * Free a direct ByteBuffer right away with sun.misc.Unsafe.invokeCleaner on Java 9 and later or its
+     * Cleaner on Java 8.  If neither can be used, the garbage collector frees it later.
+     * @param buffer The direct ByteBuffer
+     */
+    private static void free(ByteBuffer buffer) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (Exception e) {
+            // Leave it to the garbage collector
+        }
+    }
+
+    /**
+     * A CoordinateSequence.Builder that writes a known number of Coordinates into room reserved in a chunk
+     */
+    private static final class DirectBuilder extends CoordinateSequence.Builder {
+
+        /**
+         * The CoordinateArena
+         */
+        private final CoordinateArena arena;
+
+        /**
+         * The index of the chunk
+         */
+        private final int chunk;
+
+        /**
+         * The offset of the first value in bytes
+         */
+        private final int offset;
+
+        /**
+         * The number of Coordinates there is room for
+         */
+        private final int capacity;
+
+        /**
+         * The Dimension of every Coordinate
+         */
+        private final Dimension dimension;
+
+        /**
+         * The number of bytes per Coordinate
+         */
+        private final int stride;
+
+        /**
+         * The number of Coordinates
+         */
+        private int size;
+
+        /**
+         * Create a new DirectBuilder
+         * @param arena The CoordinateArena
+         * @param chunk The index of the chunk
+         * @param offset The offset of the first value in bytes
+         * @param capacity The number of Coordinates there is room for
+         * @param dimension The Dimension of every Coordinate
+         */
+        DirectBuilder(CoordinateArena arena, int chunk, int offset, int capacity, Dimension dimension) {
+            super(0, dimension);
+            this.arena = arena;
+            this.chunk = chunk;
+            this.offset = offset;
+            this.capacity = capacity;
+            this.dimension = dimension;
+            this.stride = dimension.getNumberOfValues() * 8;
+        }
+
+        @Override
+        public CoordinateSequence.Builder add(double x, double y, double z, double m) {
+            if (size == capacity) {
+                throw new IllegalStateException("There is only room for " + capacity + " Coordinates");
+            }
+            ByteBuffer buffer = arena.getChunk(chunk);
+            int position = offset + size * stride;
+            buffer.putDouble(position, x);
+            buffer.putDouble(position + 8, y);
+            if (dimension.hasZ()) {
+                buffer.putDouble(position + 16, z);
+            }
+            if (dimension.hasM()) {
+                buffer.putDouble(position + stride - 8, m);
+            }
+            size++;
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Coordinate getCoordinate(int index) {
+            return new DirectCoordinateSequence(arena, chunk, offset, size, dimension).getCoordinate(index);
+        }
+
+        @Override
+        public CoordinateSequence build(Dimension dimension, CoordinateSequenceFactory factory) {
+            CoordinateSequence sequence = new DirectCoordinateSequence(arena, chunk, offset, size, this.dimension);
+            if (factory == arena && CoordinateSequence.getDimension(dimension, this.dimension.hasZ(), this.dimension.hasM()) == this.dimension) {
+                return sequence;
+            }
+            // Another CoordinateSequenceFactory or Dimension needs the values somewhere else
+            CoordinateSequence.Builder builder = new CoordinateSequence.Builder(size, this.dimension);
+            for (int i = 0; i < size; i++) {
+                builder.add(sequence.getX(i), sequence.getY(i), sequence.getZ(i), sequence.getM(i));
+            }
+            return builder.build(dimension, factory);
+        }
+    }
+
+}
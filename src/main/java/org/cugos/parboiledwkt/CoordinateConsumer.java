@@ -0,0 +1,18 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * Receives the values of each Coordinate of a Geometry without a Coordinate being created for it
+ * @author Jared Erickson
+ */
+public interface CoordinateConsumer {
+
+    /**
+     * Receive a Coordinate
+     * @param x The X value
+     * @param y The Y value
+     * @param z The Z value or NaN
+     * @param m The M value or NaN
+     */
+    void coordinate(double x, double y, double z, double m);
+
+}
@@ -0,0 +1,379 @@
+package org.cugos.parboiledwkt;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A sequence of Coordinates that stores the ordinate values instead of Coordinate objects.
+ * Missing Z and M values are NaN, just like in a Coordinate.
+ * @author Jared Erickson
+ */
+public abstract class CoordinateSequence {
+
+    /**
+     * The CoordinateSequenceFactory used when none is given, or null for PackedCoordinateSequence.FACTORY
+     */
+    private static volatile CoordinateSequenceFactory defaultFactory;
+
+    /**
+     * Get the CoordinateSequenceFactory used when none is given
+     * @return The default CoordinateSequenceFactory
+     */
+    public static CoordinateSequenceFactory getDefaultFactory() {
+        CoordinateSequenceFactory factory = defaultFactory;
+        return factory != null ? factory : PackedCoordinateSequence.FACTORY;
+    }
+
+    /**
+     * Set the CoordinateSequenceFactory used when none is given, for every Geometry created after this call
+     * including those created with Lists of Coordinates.
+     * @param factory The CoordinateSequenceFactory or null to go back to PackedCoordinateSequence.FACTORY
+     */
+    public static void setDefaultFactory(CoordinateSequenceFactory factory) {
+        defaultFactory = factory;
+    }
+
+    /**
+     * Get the Dimension of the stored values.  Each Coordinate has X and Y values plus the Z and M
+     * values that this Dimension has room for.
+     * @return The Dimension
+     */
+    public abstract Dimension getDimension();
+
+    /**
+     * Get the number of Coordinates
+     * @return The number of Coordinates
+     */
+    public abstract int size();
+
+    /**
+     * Get the X value of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The X value
+     */
+    public abstract double getX(int index);
+
+    /**
+     * Get the Y value of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The Y value
+     */
+    public abstract double getY(int index);
+
+    /**
+     * Get the Z value of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The Z value or NaN
+     */
+    public abstract double getZ(int index);
+
+    /**
+     * Get the M value of a Coordinate
+     * @param index The index of the Coordinate
+     * @return The M value or NaN
+     */
+    public abstract double getM(int index);
+
+    /**
+     * Whether there are no Coordinates
+     * @return Whether there are no Coordinates
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Create a Coordinate
+     * @param index The index of the Coordinate
+     * @return A new Coordinate
+     */
+    public Coordinate getCoordinate(int index) {
+        return new Coordinate(getX(index), getY(index), getZ(index), getM(index));
+    }
+
+    /**
+     * Send every Coordinate to the CoordinateConsumer without creating Coordinates
+     * @param consumer The CoordinateConsumer
+     */
+    public void forEach(CoordinateConsumer consumer) {
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            consumer.coordinate(getX(i), getY(i), getZ(i), getM(i));
+        }
+    }
+
+    /**
+     * Get an unmodifiable List view of this CoordinateSequence.  Coordinates are created as they are read.
+     * @return A List of Coordinates
+     */
+    public List<Coordinate> asList() {
+        return new AbstractList<Coordinate>() {
+            @Override
+            public Coordinate get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                }
+                return getCoordinate(index);
+            }
+
+            @Override
+            public int size() {
+                return CoordinateSequence.this.size();
+            }
+        };
+    }
+
+    /**
+     * Create a CoordinateSequence from a List of Coordinates
+     * @param coordinates The List of Coordinates
+     * @param dimension The Dimension of the Geometry.  The CoordinateSequence also has room for any
+     * Z or M values of the Coordinates that this Dimension doesn't have.
+     * @return A CoordinateSequence
+     */
+    public static CoordinateSequence create(List<Coordinate> coordinates, Dimension dimension) {
+        Builder builder = new Builder(coordinates.size());
+        for (Coordinate coordinate : coordinates) {
+            builder.add(coordinate);
+        }
+        return builder.build(dimension);
+    }
+
+    /**
+     * Get the Dimension with room for the values of the given Dimension and any other Z or M values
+     * @param dimension The Dimension (can be null)
+     * @param hasZ Whether there are Z values
+     * @param hasM Whether there are M values
+     * @return The Dimension
+     */
+    static Dimension getDimension(Dimension dimension, boolean hasZ, boolean hasM) {
+        if (dimension != null) {
+            hasZ |= dimension.hasZ();
+            hasM |= dimension.hasM();
+        }
+        return Dimension.get(hasZ, hasM);
+    }
+
+    /**
+     * A Builder for CoordinateSequences.  By default it collects Coordinates with room for Z and M values
+     * until the final Dimension is known, like WKT where the Dimension can grow as Coordinates are read.
+     * When every Coordinate has the same Dimension, like WKB, it packs them at that Dimension's stride
+     * as they are added so building doesn't have to pack them again.
+     */
+    public static class Builder {
+
+        /**
+         * The array of values before the first Coordinate is added
+         */
+        private static final double[] EMPTY = new double[0];
+
+        /**
+         * The Dimension every Coordinate has or null if the Coordinates have room for Z and M values
+         */
+        private final Dimension dimension;
+
+        /**
+         * The number of values per Coordinate
+         */
+        private final int stride;
+
+        /**
+         * The values of each Coordinate
+         */
+        private double[] values;
+
+        /**
+         * Whether a CoordinateSequence that was built has the values, so they have to be copied before
+         * another Coordinate is added
+         */
+        private boolean built;
+
+        /**
+         * The number of Coordinates
+         */
+        private int size;
+
+        /**
+         * Whether any Coordinate has a Z value
+         */
+        private boolean hasZ;
+
+        /**
+         * Whether any Coordinate has an M value
+         */
+        private boolean hasM;
+
+        /**
+         * Create a new Builder
+         */
+        public Builder() {
+            this.dimension = null;
+            this.stride = 4;
+            this.values = EMPTY;
+        }
+
+        /**
+         * Create a new Builder
+         * @param capacity The expected number of Coordinates
+         */
+        public Builder(int capacity) {
+            this.dimension = null;
+            this.stride = 4;
+            this.values = new double[Math.max(capacity, 1) * 4];
+        }
+
+        /**
+         * Create a new Builder for Coordinates that all have the same Dimension.  Only the values of that
+         * Dimension are kept, so a Z or M value that it doesn't have is dropped.
+         * @param capacity The expected number of Coordinates
+         * @param dimension The Dimension of every Coordinate
+         */
+        public Builder(int capacity, Dimension dimension) {
+            this.dimension = dimension;
+            this.stride = dimension.getNumberOfValues();
+            this.values = new double[Math.max(capacity, 0) * stride];
+            this.hasZ = dimension.hasZ();
+            this.hasM = dimension.hasM();
+        }
+
+        /**
+         * Add a Coordinate
+         * @param x The X value
+         * @param y The Y value
+         * @param z The Z value or NaN
+         * @param m The M value or NaN
+         * @return This Builder
+         */
+        public Builder add(double x, double y, double z, double m) {
+            int i = size * stride;
+            if (i == values.length || built) {
+                double[] newValues = new double[Math.max(values.length * 2, i + 8 * stride)];
+                System.arraycopy(values, 0, newValues, 0, i);
+                values = newValues;
+                built = false;
+            }
+            values[i] = x;
+            values[i + 1] = y;
+            if (dimension == null) {
+                values[i + 2] = z;
+                values[i + 3] = m;
+                hasZ |= !Double.isNaN(z);
+                hasM |= !Double.isNaN(m);
+            } else {
+                if (hasZ) {
+                    values[i + 2] = z;
+                }
+                if (hasM) {
+                    values[i + stride - 1] = m;
+                }
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * Add a Coordinate
+         * @param coordinate The Coordinate
+         * @return This Builder
+         */
+        public Builder add(Coordinate coordinate) {
+            return add(coordinate.getX(), coordinate.getY(), coordinate.getZ(), coordinate.getM());
+        }
+
+        /**
+         * Get the number of Coordinates
+         * @return The number of Coordinates
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Create one of the Coordinates
+         * @param index The index of the Coordinate
+         * @return A new Coordinate
+         */
+        public Coordinate getCoordinate(int index) {
+            return new Coordinate(getX(index), getY(index), getZ(index), getM(index));
+        }
+
+        /**
+         * Build the CoordinateSequence with the default CoordinateSequenceFactory
+         * @param dimension The Dimension of the Geometry.  The CoordinateSequence also has room for any
+         * Z or M values that this Dimension doesn't have.
+         * @return A new CoordinateSequence
+         */
+        public CoordinateSequence build(Dimension dimension) {
+            return build(dimension, getDefaultFactory());
+        }
+
+        /**
+         * Build the CoordinateSequence.  When the Coordinates are already packed the way the CoordinateSequence
+         * stores them, the CoordinateSequenceFactory gets the Builder's array without a copy.
+         * @param dimension The Dimension of the Geometry.  The CoordinateSequence also has room for any
+         * Z or M values that this Dimension doesn't have.
+         * @param factory The CoordinateSequenceFactory
+         * @return A new CoordinateSequence
+         */
+        public CoordinateSequence build(Dimension dimension, CoordinateSequenceFactory factory) {
+            Dimension sequenceDimension = CoordinateSequence.getDimension(dimension, hasZ, hasM);
+            int sequenceStride = sequenceDimension.getNumberOfValues();
+            if (sequenceDimension == this.dimension || (this.dimension == null && sequenceStride == 4)) {
+                if (values.length != size * stride) {
+                    double[] packed = new double[size * stride];
+                    System.arraycopy(values, 0, packed, 0, packed.length);
+                    values = packed;
+                }
+                built = true;
+                return factory.create(values, sequenceDimension);
+            }
+            double[] packed = new double[size * sequenceStride];
+            switch (sequenceDimension) {
+                case Two:
+                    for (int i = 0, j = 0, k = 0; i < size; i++, j += stride, k += 2) {
+                        packed[k] = values[j];
+                        packed[k + 1] = values[j + 1];
+                    }
+                    break;
+                case TwoMeasured:
+                    for (int i = 0, k = 0; i < size; i++, k += 3) {
+                        packed[k] = getX(i);
+                        packed[k + 1] = getY(i);
+                        packed[k + 2] = getM(i);
+                    }
+                    break;
+                case Three:
+                    for (int i = 0, k = 0; i < size; i++, k += 3) {
+                        packed[k] = getX(i);
+                        packed[k + 1] = getY(i);
+                        packed[k + 2] = getZ(i);
+                    }
+                    break;
+                default:
+                    for (int i = 0, k = 0; i < size; i++, k += 4) {
+                        packed[k] = getX(i);
+                        packed[k + 1] = getY(i);
+                        packed[k + 2] = getZ(i);
+                        packed[k + 3] = getM(i);
+                    }
+            }
+            return factory.create(packed, sequenceDimension);
+        }
+
+        private double getX(int index) {
+            return values[index * stride];
+        }
+
+        private double getY(int index) {
+            return values[index * stride + 1];
+        }
+
+        private double getZ(int index) {
+            return dimension == null || hasZ ? values[index * stride + 2] : Double.NaN;
+        }
+
+        private double getM(int index) {
+            return dimension == null || hasM ? values[index * stride + stride - 1] : Double.NaN;
+        }
+    }
+
+}
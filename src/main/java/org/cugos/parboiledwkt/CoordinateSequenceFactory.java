@@ -0,0 +1,18 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * Creates the CoordinateSequences of the Geometries that are read, which decides how their values are stored.
+ * @author Jared Erickson
+ */
+public interface CoordinateSequenceFactory {
+
+    /**
+     * Create a CoordinateSequence
+     * @param values The X, Y, and then Z and/or M values of each Coordinate, packed as the Dimension says.
+     * The CoordinateSequence may keep the array.
+     * @param dimension The Dimension of the values
+     * @return A CoordinateSequence
+     */
+    CoordinateSequence create(double[] values, Dimension dimension);
+
+}
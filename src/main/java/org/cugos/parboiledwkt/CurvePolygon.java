@@ -71,4 +71,26 @@ public class CurvePolygon extends Surface {
         }
         return numberOfCoordinates;
     }
+
+    @Override
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        if (outerCurve != null) {
+            outerCurve.forEachCoordinate(consumer);
+        }
+        for(Curve curve : innerCurves) {
+            curve.forEachCoordinate(consumer);
+        }
+    }
+
+    @Override
+    protected Envelope computeEnvelope() {
+        Envelope.Builder builder = new Envelope.Builder();
+        if (outerCurve != null) {
+            builder.add(outerCurve.getEnvelope());
+        }
+        for(Curve curve : innerCurves) {
+            builder.add(curve.getEnvelope());
+        }
+        return builder.build();
+    }
 }
@@ -5,8 +5,70 @@ package org.cugos.parboiledwkt;
  * @author Jared Erickson
  */
 public enum Dimension {
-    Two,
-    TwoMeasured,
-    Three,
-    ThreeMeasured
+    Two(false, false),
+    TwoMeasured(false, true),
+    Three(true, false),
+    ThreeMeasured(true, true);
+
+    /**
+     * Whether there is a Z value
+     */
+    private final boolean z;
+
+    /**
+     * Whether there is an M value
+     */
+    private final boolean m;
+
+    /**
+     * Create a new Dimension
+     * @param z Whether there is a Z value
+     * @param m Whether there is an M value
+     */
+    private Dimension(boolean z, boolean m) {
+        this.z = z;
+        this.m = m;
+    }
+
+    /**
+     * Whether there is a Z value
+     * @return Whether there is a Z value
+     */
+    public boolean hasZ() {
+        return z;
+    }
+
+    /**
+     * Whether there is an M value
+     * @return Whether there is an M value
+     */
+    public boolean hasM() {
+        return m;
+    }
+
+    /**
+     * Get the number of values in each Coordinate (2, 3, or 4)
+     * @return The number of values in each Coordinate
+     */
+    public int getNumberOfValues() {
+        return 2 + (z ? 1 : 0) + (m ? 1 : 0);
+    }
+
+    /**
+     * Get the Dimension
+     * @param hasZ Whether there is a Z value
+     * @param hasM Whether there is an M value
+     * @return The Dimension
+     */
+    public static Dimension get(boolean hasZ, boolean hasM) {
+        if (hasZ && hasM) {
+            return ThreeMeasured;
+        } else if (hasZ) {
+            return Three;
+        } else if (hasM) {
+            return TwoMeasured;
+        } else {
+            return Two;
+        }
+    }
 }
@@ -0,0 +1,111 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * A CoordinateSequence whose values are packed in a chunk of direct memory owned by a CoordinateArena
+ * @author Jared Erickson
+ */
+final class DirectCoordinateSequence extends CoordinateSequence {
+
+    /**
+     * The CoordinateArena that owns the direct memory
+     */
+    private final CoordinateArena arena;
+
+    /**
+     * The index of the chunk of direct memory in the CoordinateArena
+     */
+    private final int chunk;
+
+    /**
+     * The offset of the first value in bytes
+     */
+    private final int offset;
+
+    /**
+     * The number of Coordinates
+     */
+    private final int size;
+
+    /**
+     * The Dimension of the values
+     */
+    private final Dimension dimension;
+
+    /**
+     * The number of bytes per Coordinate
+     */
+    private final int stride;
+
+    /**
+     * The offset of the Z value in bytes or -1
+     */
+    private final int zOffset;
+
+    /**
+     * The offset of the M value in bytes or -1
+     */
+    private final int mOffset;
+
+    /**
+     * Create a new DirectCoordinateSequence
+     * @param arena The CoordinateArena that owns the direct memory
+     * @param chunk The index of the chunk of direct memory in the CoordinateArena
+     * @param offset The offset of the first value in bytes
+     * @param size The number of Coordinates
+     * @param dimension The Dimension that determines how the values are packed
+     */
+    DirectCoordinateSequence(CoordinateArena arena, int chunk, int offset, int size, Dimension dimension) {
+        this.arena = arena;
+        this.chunk = chunk;
+        this.offset = offset;
+        this.size = size;
+        this.dimension = dimension;
+        this.stride = dimension.getNumberOfValues() * 8;
+        this.zOffset = dimension.hasZ() ? 16 : -1;
+        this.mOffset = dimension.hasM() ? stride - 8 : -1;
+    }
+
+    @Override
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double getX(int index) {
+        return get(index, 0);
+    }
+
+    @Override
+    public double getY(int index) {
+        return get(index, 8);
+    }
+
+    @Override
+    public double getZ(int index) {
+        return zOffset < 0 ? Double.NaN : get(index, zOffset);
+    }
+
+    @Override
+    public double getM(int index) {
+        return mOffset < 0 ? Double.NaN : get(index, mOffset);
+    }
+
+    /**
+     * Get a value
+     * @param index The index of the Coordinate
+     * @param valueOffset The offset of the value in the Coordinate in bytes
+     * @return The value
+     */
+    private double get(int index, int valueOffset) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return arena.getChunk(chunk).getDouble(offset + index * stride + valueOffset);
+    }
+
+}
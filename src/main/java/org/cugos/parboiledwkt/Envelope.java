@@ -0,0 +1,314 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * An immutable bounding box with the minimum and maximum X and Y values, and the minimum and maximum
+ * Z and M values when there are any.  Missing values are NaN, so every value of an empty Envelope is NaN.
+ * @author Jared Erickson
+ */
+public final class Envelope {
+
+    /**
+     * The empty Envelope
+     */
+    public static final Envelope EMPTY = new Envelope(Double.NaN, Double.NaN, Double.NaN, Double.NaN,
+            Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+
+    /**
+     * The minimum X value
+     */
+    private final double minX;
+
+    /**
+     * The minimum Y value
+     */
+    private final double minY;
+
+    /**
+     * The maximum X value
+     */
+    private final double maxX;
+
+    /**
+     * The maximum Y value
+     */
+    private final double maxY;
+
+    /**
+     * The minimum Z value
+     */
+    private final double minZ;
+
+    /**
+     * The maximum Z value
+     */
+    private final double maxZ;
+
+    /**
+     * The minimum M value
+     */
+    private final double minM;
+
+    /**
+     * The maximum M value
+     */
+    private final double maxM;
+
+    /**
+     * Create a new Envelope with only X and Y values
+     * @param minX The minimum X value
+     * @param minY The minimum Y value
+     * @param maxX The maximum X value
+     * @param maxY The maximum Y value
+     */
+    public Envelope(double minX, double minY, double maxX, double maxY) {
+        this(minX, minY, maxX, maxY, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Create a new Envelope
+     * @param minX The minimum X value
+     * @param minY The minimum Y value
+     * @param maxX The maximum X value
+     * @param maxY The maximum Y value
+     * @param minZ The minimum Z value or NaN
+     * @param maxZ The maximum Z value or NaN
+     * @param minM The minimum M value or NaN
+     * @param maxM The maximum M value or NaN
+     */
+    public Envelope(double minX, double minY, double maxX, double maxY, double minZ, double maxZ, double minM, double maxM) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.minZ = minZ;
+        this.maxZ = maxZ;
+        this.minM = minM;
+        this.maxM = maxM;
+    }
+
+    /**
+     * Get the minimum X value
+     * @return The minimum X value
+     */
+    public double getMinX() {
+        return minX;
+    }
+
+    /**
+     * Get the minimum Y value
+     * @return The minimum Y value
+     */
+    public double getMinY() {
+        return minY;
+    }
+
+    /**
+     * Get the maximum X value
+     * @return The maximum X value
+     */
+    public double getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Get the maximum Y value
+     * @return The maximum Y value
+     */
+    public double getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Get the minimum Z value
+     * @return The minimum Z value or NaN
+     */
+    public double getMinZ() {
+        return minZ;
+    }
+
+    /**
+     * Get the maximum Z value
+     * @return The maximum Z value or NaN
+     */
+    public double getMaxZ() {
+        return maxZ;
+    }
+
+    /**
+     * Get the minimum M value
+     * @return The minimum M value or NaN
+     */
+    public double getMinM() {
+        return minM;
+    }
+
+    /**
+     * Get the maximum M value
+     * @return The maximum M value or NaN
+     */
+    public double getMaxM() {
+        return maxM;
+    }
+
+    /**
+     * Whether the Envelope is empty because it doesn't contain any Coordinates
+     * @return Whether the Envelope is empty
+     */
+    public boolean isEmpty() {
+        return Double.isNaN(minX);
+    }
+
+    /**
+     * Whether the X and Y values of this Envelope and another Envelope overlap or touch
+     * @param other The other Envelope
+     * @return Whether the Envelopes intersect.  An empty Envelope doesn't intersect anything.
+     */
+    public boolean intersects(Envelope other) {
+        return intersects(other.minX, other.minY, other.maxX, other.maxY);
+    }
+
+    /**
+     * Whether the X and Y values of this Envelope and a bounding box overlap or touch
+     * @param minX The minimum X value of the bounding box
+     * @param minY The minimum Y value of the bounding box
+     * @param maxX The maximum X value of the bounding box
+     * @param maxY The maximum Y value of the bounding box
+     * @return Whether the Envelope and the bounding box intersect.  An empty Envelope doesn't intersect anything.
+     */
+    public boolean intersects(double minX, double minY, double maxX, double maxY) {
+        // Comparisons with NaN are false, so an empty Envelope never intersects
+        return this.minX <= maxX && this.maxX >= minX && this.minY <= maxY && this.maxY >= minY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Envelope that = (Envelope) o;
+
+        if (Double.compare(that.minX, minX) != 0) return false;
+        if (Double.compare(that.minY, minY) != 0) return false;
+        if (Double.compare(that.maxX, maxX) != 0) return false;
+        if (Double.compare(that.maxY, maxY) != 0) return false;
+        if (Double.compare(that.minZ, minZ) != 0) return false;
+        if (Double.compare(that.maxZ, maxZ) != 0) return false;
+        if (Double.compare(that.minM, minM) != 0) return false;
+        if (Double.compare(that.maxM, maxM) != 0) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (double value : new double[]{minX, minY, maxX, maxY, minZ, maxZ, minM, maxM}) {
+            long temp = Double.doubleToLongBits(value);
+            result = 31 * result + (int) (temp ^ (temp >>> 32));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "Envelope { EMPTY }";
+        }
+        String str = "Envelope { x = " + minX + " to " + maxX + " y = " + minY + " to " + maxY;
+        if (!Double.isNaN(minZ)) {
+            str = str + " z = " + minZ + " to " + maxZ;
+        }
+        if (!Double.isNaN(minM)) {
+            str = str + " m = " + minM + " to " + maxM;
+        }
+        str = str + " }";
+        return str;
+    }
+
+    /**
+     * A Builder that grows an Envelope to contain Coordinates and other Envelopes
+     */
+    public static class Builder implements CoordinateConsumer {
+
+        private double minX = Double.NaN;
+
+        private double minY = Double.NaN;
+
+        private double maxX = Double.NaN;
+
+        private double maxY = Double.NaN;
+
+        private double minZ = Double.NaN;
+
+        private double maxZ = Double.NaN;
+
+        private double minM = Double.NaN;
+
+        private double maxM = Double.NaN;
+
+        /**
+         * Add a Coordinate.  A Coordinate with an X or Y of NaN is ignored, and so are Z or M values of NaN.
+         * @param x The X value
+         * @param y The Y value
+         * @param z The Z value or NaN
+         * @param m The M value or NaN
+         */
+        @Override
+        public void coordinate(double x, double y, double z, double m) {
+            if (Double.isNaN(x) || Double.isNaN(y)) {
+                return;
+            }
+            if (Double.isNaN(minX)) {
+                minX = maxX = x;
+                minY = maxY = y;
+            } else {
+                if (x < minX) minX = x;
+                if (x > maxX) maxX = x;
+                if (y < minY) minY = y;
+                if (y > maxY) maxY = y;
+            }
+            if (!Double.isNaN(z)) {
+                if (Double.isNaN(minZ) || z < minZ) minZ = z;
+                if (Double.isNaN(maxZ) || z > maxZ) maxZ = z;
+            }
+            if (!Double.isNaN(m)) {
+                if (Double.isNaN(minM) || m < minM) minM = m;
+                if (Double.isNaN(maxM) || m > maxM) maxM = m;
+            }
+        }
+
+        /**
+         * Add an Envelope
+         * @param envelope The Envelope
+         * @return This Builder
+         */
+        public Builder add(Envelope envelope) {
+            if (!envelope.isEmpty()) {
+                coordinate(envelope.minX, envelope.minY, envelope.minZ, envelope.minM);
+                coordinate(envelope.maxX, envelope.maxY, envelope.maxZ, envelope.maxM);
+            }
+            return this;
+        }
+
+        /**
+         * Whether nothing has been added yet
+         * @return Whether nothing has been added yet
+         */
+        public boolean isEmpty() {
+            return Double.isNaN(minX);
+        }
+
+        /**
+         * Build the Envelope
+         * @return The Envelope, which is Envelope.EMPTY if nothing was added
+         */
+        public Envelope build() {
+            if (isEmpty()) {
+                return EMPTY;
+            }
+            return new Envelope(minX, minY, maxX, maxY, minZ, maxZ, minM, maxM);
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * A GeometryHandler that only finds the Envelope of a Geometry, including the arcs of CircularStrings,
+ * so a reader can decide whether to build the Geometry.
+ * @author Jared Erickson
+ */
+final class EnvelopeHandler implements GeometryHandler {
+
+    /**
+     * The Envelope.Builder
+     */
+    private final Envelope.Builder builder = new Envelope.Builder();
+
+    /**
+     * Whether the Coordinates belong to a CircularString
+     */
+    private boolean circular;
+
+    /**
+     * The number of Coordinates of the CircularString so far
+     */
+    private int count;
+
+    /**
+     * The X and Y values of the previous two Coordinates of the CircularString
+     */
+    private double x1, y1, x2, y2;
+
+    /**
+     * Get the Envelope
+     * @return The Envelope
+     */
+    Envelope getEnvelope() {
+        return builder.build();
+    }
+
+    @Override
+    public void startGeometry(WKB.GeometryType geometryType, Dimension dimension, String srid) {
+        circular = geometryType == WKB.GeometryType.CircularString;
+        count = 0;
+    }
+
+    @Override
+    public void startRing() {
+    }
+
+    @Override
+    public void coordinate(double x, double y, double z, double m) {
+        builder.coordinate(x, y, z, m);
+        if (circular) {
+            // Arcs go from every even Coordinate through the next one to the one after that
+            if (count >= 2 && count % 2 == 0) {
+                CircularString.addArcExtremes(builder, x1, y1, x2, y2, x, y);
+            }
+            x1 = x2;
+            y1 = y2;
+            x2 = x;
+            y2 = y;
+            count++;
+        }
+    }
+
+    @Override
+    public void endRing() {
+    }
+
+    @Override
+    public void endGeometry(Dimension dimension) {
+        circular = false;
+    }
+
+}
@@ -0,0 +1,676 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * A hand written, single pass, recursive descent WKT parser.
+ * <p>
+ * It accepts the same input as the parboiled WKTParser and produces the same Geometries,
+ * but scans the characters directly instead of trying alternatives and backtracking.
+ * It reports what it reads to a GeometryHandler, and the GeometryBuilder handler turns those events into Geometries.
+ * A FastWKTParser holds the state of a single parse, so create a new one for each WKT.
+ * @author Jared Erickson
+ */
+final class FastWKTParser {
+
+    /**
+     * The character returned when reading past the end of the input
+     */
+    private static final char EOI = '\uFFFF';
+
+    /**
+     * The WKT
+     */
+    private final CharSequence wkt;
+
+    /**
+     * The length of the WKT
+     */
+    private final int length;
+
+    /**
+     * The current position in the WKT
+     */
+    private int position;
+
+    /**
+     * The Dimension for all Geometry can only be set once per parse.
+     */
+    private Dimension dimension;
+
+    /**
+     * The default SRID which is set once per parse.
+     */
+    private String defaultSrid;
+
+    /**
+     * The GeometryHandler that receives the parse events
+     */
+    private GeometryHandler handler;
+
+    /**
+     * Create a new FastWKTParser
+     * @param wkt The WKT
+     */
+    FastWKTParser(CharSequence wkt) {
+        this.wkt = wkt;
+        this.length = wkt.length();
+    }
+
+    /**
+     * Parse the WKT
+     * @param factory The CoordinateSequenceFactory or null for the default CoordinateSequenceFactory
+     * @return A Geometry or null if the WKT could not be parsed
+     */
+    Geometry parse(CoordinateSequenceFactory factory) {
+        GeometryBuilder builder = new GeometryBuilder(true, factory);
+        return parse(builder) ? builder.getGeometry() : null;
+    }
+
+    /**
+     * Parse the WKT and send the events to the GeometryHandler
+     * @param handler The GeometryHandler
+     * @return Whether the WKT could be parsed.  If not, the GeometryHandler may have received some events.
+     */
+    boolean parse(GeometryHandler handler) {
+        if (handler instanceof GeometryBuilder) {
+            ((GeometryBuilder) handler).reset();
+        }
+        this.handler = handler;
+        try {
+            geometry();
+            return true;
+        } catch (ParseFailure e) {
+            return false;
+        }
+    }
+
+    /**
+     * Read only the SRID prefix, the Geometry type, and the Dimension tag (Z, M, or ZM) without
+     * parsing any coordinates.  The Dimension is the declared Dimension, so POINT (1 2 3) is Two.
+     * @return A GeometryHeader or null if the WKT doesn't start with a Geometry
+     */
+    GeometryHeader probe() {
+        try {
+            String srid = srid();
+            WKB.GeometryType geometryType = geometryType();
+            if (!empty()) {
+                dimensionAndOpen();
+            }
+            return new GeometryHeader(geometryType, dimension != null ? dimension : Dimension.Two, srid);
+        } catch (ParseFailure e) {
+            return null;
+        }
+    }
+
+    // Geometry
+
+    private void geometry() {
+        String srid = srid();
+        boolean hasSrid = srid != null;
+        if (!hasSrid) {
+            srid = defaultSrid;
+        }
+        WKB.GeometryType geometryType = geometryType();
+        switch (geometryType) {
+            case Point:
+                point(srid);
+                break;
+            case LineString:
+            case CircularString:
+                if (geometryType == WKB.GeometryType.CircularString) {
+                    setDefaultSrid(hasSrid, srid);
+                }
+                coordinatesGeometry(geometryType, srid);
+                break;
+            case Polygon:
+                polygon(geometryType, srid);
+                break;
+            case Triangle:
+                setDefaultSrid(hasSrid, srid);
+                polygon(geometryType, srid);
+                break;
+            case MultiPoint:
+                multiPoint(srid);
+                break;
+            case MultiLineString:
+                multiLineString(srid);
+                break;
+            case MultiPolygon:
+                multiPolygon(geometryType, WKB.GeometryType.Polygon, srid, dimension);
+                break;
+            case PolyHedralSurface:
+                setDefaultSrid(hasSrid, srid);
+                multiPolygon(geometryType, WKB.GeometryType.Polygon, srid, dimension);
+                break;
+            case Tin:
+                setDefaultSrid(hasSrid, srid);
+                multiPolygon(geometryType, WKB.GeometryType.Triangle, srid, Dimension.Two);
+                break;
+            case GeometryCollection:
+                setDefaultSrid(hasSrid, srid);
+                geometryCollection(srid);
+                break;
+            case CompoundCurve:
+                setDefaultSrid(hasSrid, srid);
+                compoundCurve(srid);
+                break;
+            case CurvePolygon:
+                setDefaultSrid(hasSrid, srid);
+                curvePolygon(srid);
+                break;
+            case MultiCurve:
+                setDefaultSrid(hasSrid, srid);
+                multiCurve(srid);
+                break;
+            case MultiSurface:
+                setDefaultSrid(hasSrid, srid);
+                multiSurface(srid);
+                break;
+            default:
+                throw FAILURE;
+        }
+    }
+
+    /**
+     * Parse the Geometry type keyword (LINEARRING is read as a LineString)
+     * @return The Geometry type
+     */
+    private WKB.GeometryType geometryType() {
+        switch (peek()) {
+            case 'P':
+                if (match("POINT")) {
+                    return WKB.GeometryType.Point;
+                } else if (match("POLYGON")) {
+                    return WKB.GeometryType.Polygon;
+                } else if (match("POLYHEDRALSURFACE")) {
+                    return WKB.GeometryType.PolyHedralSurface;
+                }
+                break;
+            case 'L':
+                if (match("LINESTRING") || match("LINEARRING")) {
+                    return WKB.GeometryType.LineString;
+                }
+                break;
+            case 'M':
+                if (match("MULTIPOINT")) {
+                    return WKB.GeometryType.MultiPoint;
+                } else if (match("MULTILINESTRING")) {
+                    return WKB.GeometryType.MultiLineString;
+                } else if (match("MULTIPOLYGON")) {
+                    return WKB.GeometryType.MultiPolygon;
+                } else if (match("MULTICURVE")) {
+                    return WKB.GeometryType.MultiCurve;
+                } else if (match("MULTISURFACE")) {
+                    return WKB.GeometryType.MultiSurface;
+                }
+                break;
+            case 'G':
+                if (match("GEOMETRYCOLLECTION")) {
+                    return WKB.GeometryType.GeometryCollection;
+                }
+                break;
+            case 'T':
+                if (match("TRIANGLE")) {
+                    return WKB.GeometryType.Triangle;
+                } else if (match("TIN")) {
+                    return WKB.GeometryType.Tin;
+                }
+                break;
+            case 'C':
+                if (match("CIRCULARSTRING")) {
+                    return WKB.GeometryType.CircularString;
+                } else if (match("COMPOUNDCURVE")) {
+                    return WKB.GeometryType.CompoundCurve;
+                } else if (match("CURVEPOLYGON")) {
+                    return WKB.GeometryType.CurvePolygon;
+                }
+                break;
+        }
+        throw FAILURE;
+    }
+
+    /**
+     * The WKTParser tries its Geometry alternatives in order and the GEOMETRYCOLLECTION alternative sets the default
+     * SRID as soon as it reads an SRID prefix, even when its keyword then fails to match.  So an SRID prefix becomes
+     * the default SRID for every Geometry type that comes after GEOMETRYCOLLECTION in that order.
+     * @param hasSrid Whether the Geometry has an SRID prefix
+     * @param srid The SRID
+     */
+    private void setDefaultSrid(boolean hasSrid, String srid) {
+        if (hasSrid) {
+            this.defaultSrid = srid;
+        }
+    }
+
+    /**
+     * Report an EMPTY Geometry
+     * @param geometryType The Geometry type
+     * @param dimension The Dimension
+     * @param srid The SRID
+     */
+    private void emptyGeometry(WKB.GeometryType geometryType, Dimension dimension, String srid) {
+        handler.startGeometry(geometryType, dimension, srid);
+        handler.endGeometry(dimension);
+    }
+
+    private void point(String srid) {
+        if (empty()) {
+            emptyGeometry(WKB.GeometryType.Point, Dimension.Two, srid);
+            return;
+        }
+        dimensionAndOpen();
+        handler.startGeometry(WKB.GeometryType.Point, dimension, srid);
+        coordinate();
+        expect(')');
+        handler.endGeometry(dimension);
+    }
+
+    // LINESTRING, LINEARRING, and CIRCULARSTRING
+    private void coordinatesGeometry(WKB.GeometryType geometryType, String srid) {
+        if (empty()) {
+            emptyGeometry(geometryType, Dimension.Two, srid);
+            return;
+        }
+        dimensionAndOpen();
+        handler.startGeometry(geometryType, dimension, srid);
+        coordinates();
+        expect(')');
+        handler.endGeometry(dimension);
+    }
+
+    // POLYGON and TRIANGLE
+    private void polygon(WKB.GeometryType geometryType, String srid) {
+        if (empty()) {
+            emptyGeometry(geometryType, Dimension.Two, srid);
+            return;
+        }
+        dimensionAndOpen();
+        handler.startGeometry(geometryType, dimension, srid);
+        rings();
+        expect(')');
+        handler.endGeometry(dimension);
+    }
+
+    // The POLYGON without a keyword in a MULTISURFACE
+    private void polygonText() {
+        expect('(');
+        handler.startGeometry(WKB.GeometryType.Polygon, dimension, defaultSrid);
+        rings();
+        expect(')');
+        handler.endGeometry(dimension);
+    }
+
+    private void multiPoint(String srid) {
+        if (empty()) {
+            emptyGeometry(WKB.GeometryType.MultiPoint, dimension, srid);
+            return;
+        }
+        dimensionAndOpen();
+        handler.startGeometry(WKB.GeometryType.MultiPoint, dimension, srid);
+        if (peek() == '(') {
+            do {
+                expect('(');
+                points();
+                expect(')');
+                separator();
+            } while (peek() == '(');
+        } else {
+            points();
+        }
+        expect(')');
+        handler.endGeometry(dimension);
+    }
+
+    private void multiLineString(String srid) {
+        if (empty()) {
+            emptyGeometry(WKB.GeometryType.MultiLineString, dimension, srid);
+            return;
+        }
+        dimensionAndOpen();
+        handler.startGeometry(WKB.GeometryType.MultiLineString, dimension, srid);
+        do {
+            expect('(');
+            handler.startGeometry(WKB.GeometryType.LineString, dimension, srid);
+            coordinates();
+            expect(')');
+            handler.endGeometry(dimension);
+            separator();
+        } while (peek() == '(');
+        expect(')');
+        handler.endGeometry(dimension);
+    }
+
+    // MULTIPOLYGON, POLYHEDRALSURFACE, and TIN
+    private void multiPolygon(WKB.GeometryType geometryType, WKB.GeometryType partType, String srid, Dimension emptyDimension) {
+        if (empty()) {
+            emptyGeometry(geometryType, emptyDimension, srid);
+            return;
+        }
+        dimensionAndOpen();
+        handler.startGeometry(geometryType, dimension, srid);
+        do {
+            expect('(');
+            handler.startGeometry(partType, dimension, srid);
+            rings();
+            expect(')');
+            handler.endGeometry(dimension);
+            separator();
+        } while (peek() == '(');
+        expect(')');
+        handler.endGeometry(dimension);
+    }
+
+    private void geometryCollection(String srid) {
+        if (empty()) {
+            emptyGeometry(WKB.GeometryType.GeometryCollection, dimension, srid);
+            return;
+        }
+        dimensionAndOpen();
+        handler.startGeometry(WKB.GeometryType.GeometryCollection, dimension, srid);
+        do {
+            geometry();
+            separator();
+        } while (peek() != ')');
+        expect(')');
+        handler.endGeometry(dimension);
+    }
+
+    private void compoundCurve(String srid) {
+        curves(WKB.GeometryType.CompoundCurve, srid, false);
+    }
+
+    private void curvePolygon(String srid) {
+        curves(WKB.GeometryType.CurvePolygon, srid, true);
+    }
+
+    private void multiCurve(String srid) {
+        curves(WKB.GeometryType.MultiCurve, srid, true);
+    }
+
+    private void multiSurface(String srid) {
+        if (empty()) {
+            emptyGeometry(WKB.GeometryType.MultiSurface, Dimension.Two, srid);
+            return;
+        }
+        dimensionAndOpen();
+        handler.startGeometry(WKB.GeometryType.MultiSurface, dimension, srid);
+        do {
+            if (peek() == '(') {
+                polygonText();
+            } else {
+                String surfaceSrid = sridOrDefault();
+                if (!match("CURVEPOLYGON")) {
+                    throw FAILURE;
+                }
+                curvePolygon(surfaceSrid);
+            }
+            separator();
+        } while (peek() != ')');
+        expect(')');
+        handler.endGeometry(dimension);
+    }
+
+    /**
+     * Parse a Geometry made of Curves, which can be CIRCULARSTRINGs, bare LineString coordinates,
+     * and when allowed, COMPOUNDCURVEs.
+     * @param geometryType The Geometry type
+     * @param srid The SRID
+     * @param allowCompoundCurves Whether COMPOUNDCURVEs are allowed
+     */
+    private void curves(WKB.GeometryType geometryType, String srid, boolean allowCompoundCurves) {
+        if (empty()) {
+            emptyGeometry(geometryType, Dimension.Two, srid);
+            return;
+        }
+        dimensionAndOpen();
+        handler.startGeometry(geometryType, dimension, srid);
+        do {
+            if (peek() == '(') {
+                expect('(');
+                handler.startGeometry(WKB.GeometryType.LineString, dimension, defaultSrid);
+                coordinates();
+                expect(')');
+                handler.endGeometry(dimension);
+            } else {
+                String curveSrid = sridOrDefault();
+                if (match("CIRCULARSTRING")) {
+                    coordinatesGeometry(WKB.GeometryType.CircularString, curveSrid);
+                } else if (allowCompoundCurves && match("COMPOUNDCURVE")) {
+                    compoundCurve(curveSrid);
+                } else {
+                    throw FAILURE;
+                }
+            }
+            separator();
+        } while (peek() != ')');
+        expect(')');
+        handler.endGeometry(dimension);
+    }
+
+    // SRID, EMPTY and Dimension
+
+    /**
+     * Parse an optional SRID prefix (SRID=4326;)
+     * @return The SRID or null
+     */
+    private String srid() {
+        if (!match("SRID=")) {
+            return null;
+        }
+        int start = position;
+        while (isDigit(peek())) {
+            position++;
+        }
+        if (position == start) {
+            throw FAILURE;
+        }
+        String srid = wkt.subSequence(start, position).toString();
+        expect(';');
+        return srid;
+    }
+
+    private String sridOrDefault() {
+        String srid = srid();
+        return srid != null ? srid : defaultSrid;
+    }
+
+    /**
+     * Parse the optional space after the Geometry type and EMPTY
+     * @return Whether the Geometry is EMPTY
+     */
+    private boolean empty() {
+        optional(' ');
+        return match("EMPTY");
+    }
+
+    /**
+     * Parse the optional Dimension (Z, M, or ZM) and the opening paren.
+     */
+    private void dimensionAndOpen() {
+        if (match("ZM")) {
+            setDimension(Dimension.ThreeMeasured);
+        }
+        if (optional('Z')) {
+            setDimension(Dimension.Three);
+        }
+        if (optional('M')) {
+            setDimension(Dimension.TwoMeasured);
+        }
+        setDimension(Dimension.Two);
+        optional(' ');
+        expect('(');
+    }
+
+    /**
+     * Set the Dimension but only if it is null.
+     * @param d The Dimension
+     */
+    private void setDimension(Dimension d) {
+        if (this.dimension == null) {
+            this.dimension = d;
+        }
+    }
+
+    // Coordinates
+
+    // (35 10, 45 45, 15 40, 10 20, 35 10), (20 30, 35 35, 30 20, 20 30)
+    private void rings() {
+        do {
+            expect('(');
+            handler.startRing();
+            coordinates();
+            handler.endRing();
+            expect(')');
+            separator();
+        } while (peek() == '(');
+    }
+
+    // 30 10, 10 30, 40 40
+    private void coordinates() {
+        do {
+            coordinate();
+            separator();
+        } while (isNumber());
+    }
+
+    // The points of a MULTIPOINT, which the WKTParser creates without an SRID and with the Dimension of each Coordinate
+    private void points() {
+        do {
+            handler.startGeometry(WKB.GeometryType.Point, dimension, null);
+            Dimension pointDimension = coordinate();
+            handler.endGeometry(pointDimension);
+            separator();
+        } while (isNumber());
+    }
+
+    /**
+     * Parse a Coordinate (30 10)
+     * @return The Dimension of the Coordinate's values
+     */
+    private Dimension coordinate() {
+        double x = number();
+        expect(' ');
+        double y = number();
+        double z = Double.NaN;
+        double m = Double.NaN;
+        optional(' ');
+        if (isNumber()) {
+            double value = number();
+            if (dimension == Dimension.TwoMeasured) {
+                m = value;
+            } else {
+                // Support for POINT(0 0 5) which should be POINT Z (0 0 5)
+                if (dimension == Dimension.Two) {
+                    dimension = Dimension.Three;
+                }
+                z = value;
+            }
+        }
+        optional(' ');
+        if (isNumber()) {
+            // Support for POINT(0 0 5 4) which should be POINT ZM (0 0 5 4)
+            if (dimension == Dimension.Three) {
+                dimension = Dimension.ThreeMeasured;
+            }
+            m = number();
+        }
+        handler.coordinate(x, y, z, m);
+        if (Double.isNaN(z)) {
+            return Double.isNaN(m) ? Dimension.Two : Dimension.TwoMeasured;
+        } else {
+            return Double.isNaN(m) ? Dimension.Three : Dimension.ThreeMeasured;
+        }
+    }
+
+    /**
+     * Whether a number starts at the current position
+     * @return Whether a number starts at the current position
+     */
+    private boolean isNumber() {
+        char c = peek();
+        if (c == '-' || c == '+') {
+            c = peek(1);
+        }
+        return isDigit(c);
+    }
+
+    /**
+     * Parse a number (an optional sign, digits, optional decimal digits and an optional exponent)
+     * @return The number
+     */
+    private double number() {
+        int start = position;
+        int end = NumberParser.scan(wkt, start, length);
+        if (end < 0) {
+            throw FAILURE;
+        }
+        position = end;
+        return NumberParser.parse(wkt, start, end);
+    }
+
+    // Characters
+
+    private char peek() {
+        return position < length ? wkt.charAt(position) : EOI;
+    }
+
+    private char peek(int offset) {
+        int i = position + offset;
+        return i < length ? wkt.charAt(i) : EOI;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Consume the optional separator between Coordinates and Geometries (a space, a comma, and a space)
+     */
+    private void separator() {
+        optional(' ');
+        optional(',');
+        optional(' ');
+    }
+
+    private boolean optional(char c) {
+        if (peek() == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!optional(c)) {
+            throw FAILURE;
+        }
+    }
+
+    private boolean match(String str) {
+        int n = str.length();
+        if (position + n > length) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (wkt.charAt(position + i) != str.charAt(i)) {
+                return false;
+            }
+        }
+        position += n;
+        return true;
+    }
+
+    /**
+     * The single, stackless failure used to unwind the parser when the WKT does not match
+     */
+    private static final ParseFailure FAILURE = new ParseFailure();
+
+    private static final class ParseFailure extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
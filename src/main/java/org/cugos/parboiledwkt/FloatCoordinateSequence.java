@@ -0,0 +1,95 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * A CoordinateSequence that packs the values of every Coordinate into one array of floats, which takes half
+ * the memory of a PackedCoordinateSequence at the cost of precision.  Values are still read as doubles.
+ * @author Jared Erickson
+ */
+public final class FloatCoordinateSequence extends CoordinateSequence {
+
+    /**
+     * The CoordinateSequenceFactory that creates FloatCoordinateSequences
+     */
+    public static final CoordinateSequenceFactory FACTORY = new CoordinateSequenceFactory() {
+        @Override
+        public CoordinateSequence create(double[] values, Dimension dimension) {
+            float[] floats = new float[values.length];
+            for (int i = 0; i < values.length; i++) {
+                floats[i] = (float) values[i];
+            }
+            return new FloatCoordinateSequence(floats, dimension);
+        }
+    };
+
+    /**
+     * The packed values
+     */
+    private final float[] values;
+
+    /**
+     * The Dimension of the values
+     */
+    private final Dimension dimension;
+
+    /**
+     * The number of values per Coordinate
+     */
+    private final int stride;
+
+    /**
+     * The offset of the Z value or -1
+     */
+    private final int zOffset;
+
+    /**
+     * The offset of the M value or -1
+     */
+    private final int mOffset;
+
+    /**
+     * Create a new FloatCoordinateSequence
+     * @param values The packed values (which are not copied)
+     * @param dimension The Dimension that determines how the values are packed
+     */
+    public FloatCoordinateSequence(float[] values, Dimension dimension) {
+        this.values = values;
+        this.dimension = dimension;
+        this.stride = dimension.getNumberOfValues();
+        this.zOffset = dimension.hasZ() ? 2 : -1;
+        this.mOffset = dimension.hasM() ? stride - 1 : -1;
+        if (values.length % stride != 0) {
+            throw new IllegalArgumentException("The number of values (" + values.length + ") must be a multiple of " + stride);
+        }
+    }
+
+    @Override
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public int size() {
+        return values.length / stride;
+    }
+
+    @Override
+    public double getX(int index) {
+        return values[index * stride];
+    }
+
+    @Override
+    public double getY(int index) {
+        return values[index * stride + 1];
+    }
+
+    @Override
+    public double getZ(int index) {
+        return zOffset < 0 ? Double.NaN : values[index * stride + zOffset];
+    }
+
+    @Override
+    public double getM(int index) {
+        return mOffset < 0 ? Double.NaN : values[index * stride + mOffset];
+    }
+
+}
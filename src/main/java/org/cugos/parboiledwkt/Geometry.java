@@ -16,6 +16,12 @@ public abstract class Geometry {
      */
     protected final Dimension dimension;
 
+    /**
+     * The Envelope, which is computed the first time it is needed.  Geometries are immutable and
+     * Envelopes are immutable, so if two threads race they just compute the same Envelope.
+     */
+    private Envelope envelope;
+
     /**
      * Create a new Geometry with Dimension and SRID
      * @param dimension The Dimension
@@ -38,6 +44,37 @@ public abstract class Geometry {
      */
     public abstract int getNumberOfCoordinates();
 
+    /**
+     * Send every Coordinate of this Geometry, including those of its parts, to the CoordinateConsumer
+     * in the order they would be written, without creating Coordinates.
+     * @param consumer The CoordinateConsumer
+     */
+    public abstract void forEachCoordinate(CoordinateConsumer consumer);
+
+    /**
+     * Get the Envelope that contains all of the Coordinates of this Geometry, and for curves,
+     * all of the points along the arcs.  It is computed once and then cached.
+     * @return The Envelope, which is Envelope.EMPTY for an empty Geometry
+     */
+    public Envelope getEnvelope() {
+        Envelope env = envelope;
+        if (env == null) {
+            env = computeEnvelope();
+            envelope = env;
+        }
+        return env;
+    }
+
+    /**
+     * Compute the Envelope.  By default it contains every Coordinate sent to forEachCoordinate.
+     * @return The Envelope
+     */
+    protected Envelope computeEnvelope() {
+        Envelope.Builder builder = new Envelope.Builder();
+        forEachCoordinate(builder);
+        return builder.build();
+    }
+
     /**
      * Get the SRID which often is null
      * @return The SRID
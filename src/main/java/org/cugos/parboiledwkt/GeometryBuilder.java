@@ -0,0 +1,287 @@
+package org.cugos.parboiledwkt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A GeometryHandler that builds Geometries.
+ * <p>
+ * The rings of a Polygon or Triangle get the Dimension and SRID of the Polygon or Triangle.
+ * By default the parts of a MultiLineString, MultiPolygon, PolyHedralSurface, or Tin also get the Dimension and
+ * SRID of the Geometry that contains them, like WKT, and the parts of every other Geometry keep their own.
+ * For WKB, where every part has its own header, use new GeometryBuilder(false) so all parts keep their own.
+ * @author Jared Erickson
+ */
+public class GeometryBuilder implements GeometryHandler {
+
+    /**
+     * Whether the parts of a MultiLineString, MultiPolygon, PolyHedralSurface, or Tin
+     * get the Dimension and SRID of the Geometry that contains them
+     */
+    private final boolean shared;
+
+    /**
+     * The CoordinateSequenceFactory
+     */
+    private final CoordinateSequenceFactory factory;
+
+    /**
+     * The Geometries that have been started but not ended
+     */
+    private final List<Part> parts = new ArrayList<Part>();
+
+    /**
+     * The last Geometry that was built
+     */
+    private Geometry geometry;
+
+    /**
+     * Create a new GeometryBuilder where the parts of a MultiLineString, MultiPolygon, PolyHedralSurface, or Tin
+     * get the Dimension and SRID of the Geometry that contains them, like the WKT parsers
+     */
+    public GeometryBuilder() {
+        this(true);
+    }
+
+    /**
+     * Create a new GeometryBuilder
+     * @param shared Whether the parts of a MultiLineString, MultiPolygon, PolyHedralSurface, or Tin get the
+     * Dimension and SRID of the Geometry that contains them, like the WKT parsers
+     */
+    public GeometryBuilder(boolean shared) {
+        this(shared, null);
+    }
+
+    /**
+     * Create a new GeometryBuilder
+     * @param shared Whether the parts of a MultiLineString, MultiPolygon, PolyHedralSurface, or Tin get the
+     * Dimension and SRID of the Geometry that contains them, like the WKT parsers
+     * @param factory The CoordinateSequenceFactory or null for the default CoordinateSequenceFactory
+     */
+    public GeometryBuilder(boolean shared, CoordinateSequenceFactory factory) {
+        this.shared = shared;
+        this.factory = factory;
+    }
+
+    /**
+     * Get the last Geometry that was built
+     * @return The Geometry or null
+     */
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Forget the Geometries that have been started but not ended, and the last Geometry that was built,
+     * so this GeometryBuilder can be used again after a Geometry could not be read.
+     * WKTReader and WKBReader call it before every Geometry they read.
+     */
+    public void reset() {
+        parts.clear();
+        geometry = null;
+    }
+
+    @Override
+    public void startGeometry(WKB.GeometryType geometryType, Dimension dimension, String srid) {
+        if (parts.isEmpty()) {
+            geometry = null;
+        }
+        parts.add(new Part(geometryType, srid));
+    }
+
+    @Override
+    public void startRing() {
+        Part part = current();
+        part.ring = new CoordinateSequence.Builder();
+        part.rings.add(part.ring);
+    }
+
+    /**
+     * Get ready for a number of Coordinates of the current Geometry or ring that all have the Dimension,
+     * so they are packed as they are sent instead of being packed again when the Geometry ends.
+     * WKBReader calls it because WKB has the number of Coordinates and the Dimension in its headers.
+     * A CoordinateArena gets them straight into direct memory, except for a Point which keeps a Coordinate.
+     * @param count The number of Coordinates
+     * @param dimension The Dimension of every Coordinate
+     */
+    void startCoordinates(int count, Dimension dimension) {
+        Part part = current();
+        CoordinateSequenceFactory factory = getFactory();
+        CoordinateSequence.Builder builder = factory instanceof CoordinateArena && part.geometryType != WKB.GeometryType.Point
+                ? ((CoordinateArena) factory).builder(count, dimension)
+                : new CoordinateSequence.Builder(count, dimension);
+        if (part.ring != null) {
+            part.ring = builder;
+            part.rings.set(part.rings.size() - 1, builder);
+        } else {
+            part.coordinates = builder;
+        }
+    }
+
+    @Override
+    public void coordinate(double x, double y, double z, double m) {
+        Part part = current();
+        (part.ring != null ? part.ring : part.coordinates).add(x, y, z, m);
+    }
+
+    @Override
+    public void endRing() {
+        current().ring = null;
+    }
+
+    @Override
+    public void endGeometry(Dimension dimension) {
+        Part part = parts.remove(parts.size() - 1);
+        part.dimension = dimension;
+        if (parts.isEmpty()) {
+            geometry = build(part, part.dimension, part.srid);
+        } else {
+            current().parts.add(part);
+        }
+    }
+
+    /**
+     * Get the CoordinateSequenceFactory, which may be the default CoordinateSequenceFactory
+     * @return The CoordinateSequenceFactory
+     */
+    private CoordinateSequenceFactory getFactory() {
+        return factory != null ? factory : CoordinateSequence.getDefaultFactory();
+    }
+
+    private Part current() {
+        return parts.get(parts.size() - 1);
+    }
+
+    /**
+     * Build a Geometry
+     * @param part The Part
+     * @param dimension The Dimension
+     * @param srid The SRID
+     * @return The Geometry
+     */
+    private Geometry build(Part part, Dimension dimension, String srid) {
+        switch (part.geometryType) {
+            case Point:
+                Coordinate coordinate = part.coordinates.size() == 0
+                        ? new Coordinate(Double.NaN, Double.NaN, Double.NaN, Double.NaN)
+                        : part.coordinates.getCoordinate(0);
+                return new Point(coordinate, dimension, srid);
+            case LineString:
+                return new LineString(part.coordinates.build(dimension, getFactory()), dimension, srid);
+            case CircularString:
+                return new CircularString(part.coordinates.build(dimension, getFactory()), dimension, srid);
+            case Polygon:
+                return new Polygon(getOuterRing(part, dimension, srid), getInnerRings(part, dimension, srid), dimension, srid);
+            case Triangle:
+                return new Triangle(getOuterRing(part, dimension, srid), getInnerRings(part, dimension, srid), dimension, srid);
+            case MultiPoint:
+                return new MultiPoint(this.<Point>build(part.parts), dimension, srid);
+            case MultiLineString:
+                return new MultiLineString(this.<LineString>buildParts(part.parts, dimension, srid), dimension, srid);
+            case MultiPolygon:
+                return new MultiPolygon(this.<Polygon>buildParts(part.parts, dimension, srid), dimension, srid);
+            case PolyHedralSurface:
+                return new PolyHedralSurface(this.<Polygon>buildParts(part.parts, dimension, srid), dimension, srid);
+            case Tin:
+                return new Tin(this.<Triangle>buildParts(part.parts, dimension, srid), dimension, srid);
+            case GeometryCollection:
+                return new GeometryCollection(this.<Geometry>build(part.parts), dimension, srid);
+            case CompoundCurve:
+                return new CompoundCurve(this.<Curve>build(part.parts), dimension, srid);
+            case CurvePolygon:
+                List<Curve> curves = this.<Curve>build(part.parts);
+                if (curves.isEmpty()) {
+                    return new CurvePolygon(new LineString(new ArrayList<Coordinate>(), dimension, srid),
+                            new ArrayList<Curve>(), dimension, srid);
+                }
+                return new CurvePolygon(curves.get(0), new ArrayList<Curve>(curves.subList(1, curves.size())), dimension, srid);
+            case MultiCurve:
+                return new MultiCurve(this.<Curve>build(part.parts), dimension, srid);
+            case MultiSurface:
+                return new MultiSurface(this.<Surface>build(part.parts), dimension, srid);
+            default:
+                throw new IllegalArgumentException("Unsupported Geometry type " + part.geometryType);
+        }
+    }
+
+    /**
+     * Build the Geometries of a collection that keep their own Dimension and SRID
+     * @param parts The Parts
+     * @return A List of Geometries
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Geometry> List<T> build(List<Part> parts) {
+        List<T> geometries = new ArrayList<T>(parts.size());
+        for (Part part : parts) {
+            geometries.add((T) build(part, part.dimension, part.srid));
+        }
+        return geometries;
+    }
+
+    /**
+     * Build the Geometries of a collection that share the collection's Dimension and SRID,
+     * or keep their own if this GeometryBuilder doesn't share them
+     * @param parts The Parts
+     * @param dimension The Dimension of the collection
+     * @param srid The SRID of the collection
+     * @return A List of Geometries
+     */
+    private <T extends Geometry> List<T> buildParts(List<Part> parts, Dimension dimension, String srid) {
+        return shared ? this.<T>build(parts, dimension, srid) : this.<T>build(parts);
+    }
+
+    /**
+     * Build the Geometries of a collection that share the collection's Dimension and SRID
+     * @param parts The Parts
+     * @param dimension The Dimension of the collection
+     * @param srid The SRID of the collection
+     * @return A List of Geometries
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Geometry> List<T> build(List<Part> parts, Dimension dimension, String srid) {
+        List<T> geometries = new ArrayList<T>(parts.size());
+        for (Part part : parts) {
+            geometries.add((T) build(part, dimension, srid));
+        }
+        return geometries;
+    }
+
+    private LinearRing getOuterRing(Part part, Dimension dimension, String srid) {
+        CoordinateSequence.Builder coordinates = part.rings.isEmpty() ? new CoordinateSequence.Builder() : part.rings.get(0);
+        return new LinearRing(coordinates.build(dimension, getFactory()), dimension, srid);
+    }
+
+    private List<LinearRing> getInnerRings(Part part, Dimension dimension, String srid) {
+        List<LinearRing> rings = new ArrayList<LinearRing>();
+        for (int i = 1; i < part.rings.size(); i++) {
+            rings.add(new LinearRing(part.rings.get(i).build(dimension, getFactory()), dimension, srid));
+        }
+        return rings;
+    }
+
+    /**
+     * A Geometry that is being built
+     */
+    private static class Part {
+
+        final WKB.GeometryType geometryType;
+
+        final String srid;
+
+        Dimension dimension;
+
+        CoordinateSequence.Builder coordinates = new CoordinateSequence.Builder();
+
+        final List<CoordinateSequence.Builder> rings = new ArrayList<CoordinateSequence.Builder>();
+
+        CoordinateSequence.Builder ring;
+
+        final List<Part> parts = new ArrayList<Part>();
+
+        Part(WKB.GeometryType geometryType, String srid) {
+            this.geometryType = geometryType;
+            this.srid = srid;
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * Receive the parts of a Geometry as they are read, without building any Geometry objects.
+ * <p>
+ * Every Geometry is reported as a startGeometry, its contents, and an endGeometry.  The contents are Coordinates,
+ * rings of Coordinates (for Polygons and Triangles), or nested Geometries (for collections and curves).
+ * So POLYGON ((0 0, 1 0, 1 1, 0 0)) is reported as:
+ * <pre>
+ * startGeometry(Polygon, Two, null)
+ *   startRing()
+ *     coordinate(0, 0, NaN, NaN) ...
+ *   endRing()
+ * endGeometry(Two)
+ * </pre>
+ * The GeometryBuilder is the GeometryHandler that creates Geometries.
+ * @author Jared Erickson
+ */
+public interface GeometryHandler {
+
+    /**
+     * Start a Geometry
+     * @param geometryType The Geometry type (LINEARRINGs are LineStrings)
+     * @param dimension The Dimension known so far, which can grow as Coordinates are read
+     * @param srid The SRID or null
+     */
+    void startGeometry(WKB.GeometryType geometryType, Dimension dimension, String srid);
+
+    /**
+     * Start a ring of a Polygon or Triangle
+     */
+    void startRing();
+
+    /**
+     * A Coordinate
+     * @param x The x value
+     * @param y The y value
+     * @param z The z value or NaN
+     * @param m The m value or NaN
+     */
+    void coordinate(double x, double y, double z, double m);
+
+    /**
+     * End the current ring
+     */
+    void endRing();
+
+    /**
+     * End the current Geometry
+     * @param dimension The Dimension of the Geometry after reading all of its Coordinates
+     */
+    void endGeometry(Dimension dimension);
+
+}
@@ -0,0 +1,87 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * The Geometry type, Dimension, and SRID of a Geometry that hasn't been completely read
+ * @author Jared Erickson
+ */
+public final class GeometryHeader {
+
+    /**
+     * The Geometry type
+     */
+    private final WKB.GeometryType geometryType;
+
+    /**
+     * The Dimension
+     */
+    private final Dimension dimension;
+
+    /**
+     * The SRID
+     */
+    private final String srid;
+
+    /**
+     * Create a new GeometryHeader
+     * @param geometryType The Geometry type
+     * @param dimension The Dimension
+     * @param srid The SRID (can be null)
+     */
+    public GeometryHeader(WKB.GeometryType geometryType, Dimension dimension, String srid) {
+        this.geometryType = geometryType;
+        this.dimension = dimension;
+        this.srid = srid;
+    }
+
+    /**
+     * Get the Geometry type
+     * @return The Geometry type
+     */
+    public WKB.GeometryType getGeometryType() {
+        return geometryType;
+    }
+
+    /**
+     * Get the Dimension
+     * @return The Dimension
+     */
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Get the SRID
+     * @return The SRID or null
+     */
+    public String getSrid() {
+        return srid;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        GeometryHeader that = (GeometryHeader) o;
+
+        if (geometryType != that.geometryType) return false;
+        if (dimension != that.dimension) return false;
+        if (srid != null ? !srid.equals(that.srid) : that.srid != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = geometryType != null ? geometryType.hashCode() : 0;
+        result = 31 * result + (dimension != null ? dimension.hashCode() : 0);
+        result = 31 * result + (srid != null ? srid.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "GeometryHeader { geometryType = " + geometryType + " dimension = " + dimension + " srid = " + srid + " }";
+    }
+
+}
@@ -0,0 +1,106 @@
+package org.cugos.parboiledwkt;
+
+import java.util.Arrays;
+
+/**
+ * Decode hex WKB with a lookup table from a CharSequence, a char array, or ASCII bytes,
+ * like the hex EWKB that PostGIS writes in COPY ... TO and CSV files.
+ * Upper and lower case digits are both accepted.
+ * @author Jared Erickson
+ */
+final class HexDecoder {
+
+    /**
+     * The value of each hex digit indexed by character, -1 for characters that aren't hex digits
+     */
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            DIGITS['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            DIGITS['a' + i] = (byte) (10 + i);
+            DIGITS['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private HexDecoder() {
+    }
+
+    /**
+     * Decode hex characters into bytes
+     * @param hex The hex characters
+     * @param offset The offset of the first hex character
+     * @param length The number of hex characters
+     * @param bytes The array of bytes to decode into, which must hold at least length / 2 bytes
+     * @return Whether the characters are pairs of hex digits
+     */
+    static boolean decode(CharSequence hex, int offset, int length, byte[] bytes) {
+        if (length % 2 != 0) {
+            return false;
+        }
+        int valid = 0;
+        for (int i = 0, j = offset; i < length / 2; i++, j += 2) {
+            int value = (digit(hex.charAt(j)) << 4) | digit(hex.charAt(j + 1));
+            valid |= value;
+            bytes[i] = (byte) value;
+        }
+        // An invalid digit is -1, which sets the sign bit
+        return valid >= 0;
+    }
+
+    /**
+     * Decode hex characters into bytes
+     * @param hex The array of hex characters
+     * @param offset The offset of the first hex character
+     * @param length The number of hex characters
+     * @param bytes The array of bytes to decode into, which must hold at least length / 2 bytes
+     * @return Whether the characters are pairs of hex digits
+     */
+    static boolean decode(char[] hex, int offset, int length, byte[] bytes) {
+        if (length % 2 != 0) {
+            return false;
+        }
+        int valid = 0;
+        for (int i = 0, j = offset; i < length / 2; i++, j += 2) {
+            int value = (digit(hex[j]) << 4) | digit(hex[j + 1]);
+            valid |= value;
+            bytes[i] = (byte) value;
+        }
+        return valid >= 0;
+    }
+
+    /**
+     * Decode ASCII hex characters into bytes
+     * @param hex The array of ASCII hex characters
+     * @param offset The offset of the first hex character
+     * @param length The number of hex characters
+     * @param bytes The array of bytes to decode into, which must hold at least length / 2 bytes.
+     * It can be the array of hex characters itself when the offset is 0.
+     * @return Whether the characters are pairs of hex digits
+     */
+    static boolean decode(byte[] hex, int offset, int length, byte[] bytes) {
+        if (length % 2 != 0) {
+            return false;
+        }
+        int valid = 0;
+        for (int i = 0, j = offset; i < length / 2; i++, j += 2) {
+            int value = (digit((char) (hex[j] & 0xFF)) << 4) | digit((char) (hex[j + 1] & 0xFF));
+            valid |= value;
+            bytes[i] = (byte) value;
+        }
+        return valid >= 0;
+    }
+
+    /**
+     * Get the value of a hex digit
+     * @param c The character
+     * @return The value or -1 if the character isn't a hex digit
+     */
+    private static int digit(char c) {
+        return c < 128 ? DIGITS[c] : -1;
+    }
+
+}
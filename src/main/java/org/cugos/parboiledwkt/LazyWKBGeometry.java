@@ -0,0 +1,241 @@
+package org.cugos.parboiledwkt;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.cugos.parboiledwkt.WKB.Endian;
+import org.cugos.parboiledwkt.WKB.GeometryType;
+
+/**
+ * A Geometry that holds its original WKB or EWKB bytes and only reads them into a Geometry when it has to.
+ * The Geometry type, Dimension, and SRID come from the header, and the number of Coordinates, the Coordinates,
+ * and the Envelope are read straight from the bytes.  A WKBWriter with the same Endian and a Type that
+ * produces the same header copies the bytes instead of encoding the Geometry again.
+ * The bytes are not copied, so they must not be changed.
+ * @author Jared Erickson
+ */
+public class LazyWKBGeometry extends Geometry {
+
+    /**
+     * The WKB bytes
+     */
+    private final byte[] wkb;
+
+    /**
+     * The byte order of the WKB
+     */
+    private final Endian endian;
+
+    /**
+     * The type int from the header of the WKB
+     */
+    private final int typeCode;
+
+    /**
+     * The Geometry type
+     */
+    private final GeometryType geometryType;
+
+    /**
+     * The WKBReader that reads the Geometry
+     */
+    private final WKBReader reader;
+
+    /**
+     * The Geometry, which is read the first time it is needed
+     */
+    private Geometry geometry;
+
+    /**
+     * Create a new LazyWKBGeometry
+     * @param wkb The WKB bytes
+     * @param endian The byte order of the WKB
+     * @param typeCode The type int from the header of the WKB
+     * @param code The decoded type int
+     * @param srid The SRID
+     * @param reader The WKBReader that reads the Geometry
+     */
+    LazyWKBGeometry(byte[] wkb, Endian endian, int typeCode, WKBTypeCode code, String srid, WKBReader reader) {
+        super(code.getDimension(), srid);
+        this.wkb = wkb;
+        this.endian = endian;
+        this.typeCode = typeCode;
+        this.geometryType = code.getGeometryType();
+        this.reader = reader;
+    }
+
+    /**
+     * Read the header of WKB or EWKB and create a LazyWKBGeometry
+     * @param wkb The WKB bytes
+     * @param reader The WKBReader that reads the Geometry
+     * @return A LazyWKBGeometry or null if the header can't be read
+     */
+    static LazyWKBGeometry create(byte[] wkb, WKBReader reader) {
+        if (wkb.length < 5) {
+            return null;
+        }
+        Endian endian = Endian.get(wkb[0]);
+        if (endian == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(wkb).order(endian == Endian.Big ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        int typeCode = buffer.getInt(1);
+        WKBTypeCode code = WKBTypeCode.get(typeCode);
+        if (code == null || (code.hasSrid() && wkb.length < 9)) {
+            return null;
+        }
+        String srid = code.hasSrid() ? String.valueOf(buffer.getInt(5)) : null;
+        return new LazyWKBGeometry(wkb, endian, typeCode, code, srid, reader);
+    }
+
+    /**
+     * Get the Geometry type
+     * @return The Geometry type
+     */
+    public GeometryType getGeometryType() {
+        return geometryType;
+    }
+
+    /**
+     * Get the byte order of the WKB
+     * @return The Endian
+     */
+    public Endian getEndian() {
+        return endian;
+    }
+
+    /**
+     * Get the original WKB bytes, which must not be changed
+     * @return The WKB bytes
+     */
+    public byte[] getWKB() {
+        return wkb;
+    }
+
+    /**
+     * Whether these are the bytes a WKBWriter would write for this Geometry.  Only the header is checked:
+     * ISO WKB codes never match, EWKB flags only match an EWKB writer, and plain codes match both.
+     * @param type The WKB.Type of the WKBWriter
+     * @param endian The Endian of the WKBWriter
+     * @return Whether the bytes can be copied
+     */
+    boolean isWrittenBy(WKB.Type type, Endian endian) {
+        if (this.endian != endian || (typeCode & 0x1FFFFFFF) != geometryType.getValue()) {
+            return false;
+        }
+        return typeCode == geometryType.getValue() || type == WKB.Type.EWKB;
+    }
+
+    /**
+     * Get the Geometry, reading it from the WKB the first time.  Geometries are immutable, so if two threads race
+     * they just read the same Geometry.
+     * @return The Geometry
+     * @throws IllegalStateException if the WKB can't be read
+     */
+    public Geometry getGeometry() {
+        Geometry g = geometry;
+        if (g == null) {
+            g = reader.read(wkb);
+            if (g == null) {
+                throw new IllegalStateException("Unable to read the WKB Geometry");
+            }
+            geometry = g;
+        }
+        return g;
+    }
+
+    /**
+     * Whether the Geometry has been read from the WKB
+     * @return Whether the Geometry has been read
+     */
+    public boolean isRead() {
+        return geometry != null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        if (geometry != null) {
+            return geometry.isEmpty();
+        }
+        // Like the Geometry classes, a Point is empty without x and y, a Polygon without an outer ring
+        // or Coordinates in it, and everything else without Coordinates or Geometries
+        ByteBuffer buffer = ByteBuffer.wrap(wkb).order(endian == Endian.Big ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        int position = srid != null ? 9 : 5;
+        if (geometryType == GeometryType.Point) {
+            return wkb.length < position + 16
+                    || (Double.isNaN(buffer.getDouble(position)) && Double.isNaN(buffer.getDouble(position + 8)));
+        } else if (geometryType == GeometryType.Polygon || geometryType == GeometryType.Triangle) {
+            return buffer.getInt(position) == 0 || buffer.getInt(position + 4) == 0;
+        } else {
+            return buffer.getInt(position) == 0;
+        }
+    }
+
+    @Override
+    public int getNumberOfCoordinates() {
+        if (geometry != null) {
+            return geometry.getNumberOfCoordinates();
+        }
+        final int[] count = new int[1];
+        forEachCoordinate(new CoordinateConsumer() {
+            @Override
+            public void coordinate(double x, double y, double z, double m) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    @Override
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        if (geometry != null) {
+            geometry.forEachCoordinate(consumer);
+        } else if (!reader.read(wkb, new CoordinateHandler(consumer))) {
+            throw new IllegalStateException("Unable to read the WKB Geometry");
+        }
+    }
+
+    @Override
+    protected Envelope computeEnvelope() {
+        Envelope envelope = new WKBEnvelopeScanner().scan(wkb);
+        return envelope != null ? envelope : getGeometry().getEnvelope();
+    }
+
+    /**
+     * A GeometryHandler that sends Coordinates to a CoordinateConsumer, skipping empty Points like Point does
+     */
+    private static class CoordinateHandler implements GeometryHandler {
+
+        private final CoordinateConsumer consumer;
+
+        private boolean point;
+
+        CoordinateHandler(CoordinateConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startGeometry(GeometryType geometryType, Dimension dimension, String srid) {
+            point = geometryType == GeometryType.Point;
+        }
+
+        @Override
+        public void startRing() {
+        }
+
+        @Override
+        public void coordinate(double x, double y, double z, double m) {
+            if (!point || !(Double.isNaN(x) && Double.isNaN(y))) {
+                consumer.coordinate(x, y, z, m);
+            }
+        }
+
+        @Override
+        public void endRing() {
+        }
+
+        @Override
+        public void endGeometry(Dimension dimension) {
+        }
+    }
+
+}
@@ -1,6 +1,5 @@
 package org.cugos.parboiledwkt;
 
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -10,9 +9,9 @@ import java.util.List;
 public class LineString extends Curve {
 
     /**
-     * The List of Coordinates
+     * The CoordinateSequence
      */
-    private final List<Coordinate> coordinates;
+    private final CoordinateSequence coordinates;
 
     /**
      * Create a new LineString
@@ -30,15 +29,33 @@ public class LineString extends Curve {
      * @param srid The SRID
      */
     public LineString(List<Coordinate> coordinates, Dimension dimension, String srid) {
+        this(CoordinateSequence.create(coordinates, dimension), dimension, srid);
+    }
+
+    /**
+     * Create a new LineString
+     * @param coordinates The CoordinateSequence
+     * @param dimension The Dimension
+     * @param srid The SRID
+     */
+    public LineString(CoordinateSequence coordinates, Dimension dimension, String srid) {
         super(dimension, srid);
-        this.coordinates = Collections.unmodifiableList(coordinates);
+        this.coordinates = coordinates;
     }
 
     /**
-     * Get the List of Coordinates
+     * Get an unmodifiable List view of the Coordinates
      * @return The List of Coordinates
      */
     public List<Coordinate> getCoordinates() {
+        return coordinates.asList();
+    }
+
+    /**
+     * Get the CoordinateSequence
+     * @return The CoordinateSequence
+     */
+    public CoordinateSequence getCoordinateSequence() {
         return coordinates;
     }
 
@@ -49,6 +66,11 @@ public class LineString extends Curve {
 
     @Override
     public int getNumberOfCoordinates() {
-        return this.getCoordinates().size();
+        return coordinates.size();
+    }
+
+    @Override
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        coordinates.forEach(consumer);
     }
 }
@@ -27,8 +27,18 @@ public class LinearRing extends LineString {
         super(coordinates, dimension, srid);
     }
 
+    /**
+     * Create a new LinearRing
+     * @param coordinates The CoordinateSequence
+     * @param dimension The Dimension
+     * @param srid The SRID
+     */
+    public LinearRing(CoordinateSequence coordinates, Dimension dimension, String srid) {
+        super(coordinates, dimension, srid);
+    }
+
     @Override
     public int getNumberOfCoordinates() {
-        return this.getCoordinates().size();
+        return getCoordinateSequence().size();
     }
 }
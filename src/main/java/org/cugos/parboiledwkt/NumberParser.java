@@ -0,0 +1,151 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * Scan and parse WKT numbers straight from the input characters without creating Strings.
+ * A number is an optional sign, digits, an optional decimal point with more digits,
+ * and an optional exponent (1, -2.5, 3., 1.0E10, 2e-3).
+ * @author Jared Erickson
+ */
+final class NumberParser {
+
+    /**
+     * The powers of ten that can be represented exactly by a double
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The largest integer that can be represented exactly by a double (2^53)
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * The most significant digits kept in a long
+     */
+    private static final int MAX_DIGITS = 18;
+
+    private NumberParser() {
+    }
+
+    /**
+     * Find the end of the number that starts at the start position
+     * @param chars The characters
+     * @param start The start position
+     * @param end The end of the characters
+     * @return The position after the number or -1 if no number starts at the start position
+     */
+    static int scan(CharSequence chars, int start, int end) {
+        int i = start;
+        if (i < end && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+            i++;
+        }
+        int digitsStart = i;
+        i = scanDigits(chars, i, end);
+        if (i == digitsStart) {
+            return -1;
+        }
+        if (i < end && chars.charAt(i) == '.') {
+            i = scanDigits(chars, i + 1, end);
+        }
+        if (i < end && (chars.charAt(i) == 'e' || chars.charAt(i) == 'E')) {
+            int exponent = i + 1;
+            if (exponent < end && (chars.charAt(exponent) == '-' || chars.charAt(exponent) == '+')) {
+                exponent++;
+            }
+            int exponentEnd = scanDigits(chars, exponent, end);
+            if (exponentEnd > exponent) {
+                i = exponentEnd;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Parse the number between the start and end positions to the nearest double.
+     * The characters must be a number as found by scan.
+     * @param chars The characters
+     * @param start The start position
+     * @param end The end position
+     * @return The double
+     */
+    static double parse(CharSequence chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        char c = chars.charAt(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        for (; i < end && isDigit(c = chars.charAt(i)); i++) {
+            if (digits < MAX_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+                truncated |= c != '0';
+            }
+        }
+        if (i < end && chars.charAt(i) == '.') {
+            for (i++; i < end && isDigit(c = chars.charAt(i)); i++) {
+                if (digits < MAX_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    exponent--;
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                } else {
+                    truncated |= c != '0';
+                }
+            }
+        }
+        if (i < end) {
+            // The exponent
+            i++;
+            boolean negativeExponent = false;
+            c = chars.charAt(i);
+            if (c == '-' || c == '+') {
+                negativeExponent = c == '-';
+                i++;
+            }
+            int exponentValue = 0;
+            for (; i < end; i++) {
+                if (exponentValue < 100000) {
+                    exponentValue = exponentValue * 10 + (chars.charAt(i) - '0');
+                }
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (!truncated && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            // Both the mantissa and the power of ten are exact so one multiplication
+            // or division gives a correctly rounded result
+            value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return Double.parseDouble(chars.subSequence(start, end).toString());
+        }
+        return negative ? -value : value;
+    }
+
+    private static int scanDigits(CharSequence chars, int start, int end) {
+        int i = start;
+        while (i < end && isDigit(chars.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.cugos.parboiledwkt;
+
+/**
+ * A CoordinateSequence that packs the values of every Coordinate into one array of doubles:
+ * XY, XYZ, XYM, or XYZM depending on the Dimension.
+ * @author Jared Erickson
+ */
+public final class PackedCoordinateSequence extends CoordinateSequence {
+
+    /**
+     * The CoordinateSequenceFactory that creates PackedCoordinateSequences
+     */
+    public static final CoordinateSequenceFactory FACTORY = new CoordinateSequenceFactory() {
+        @Override
+        public CoordinateSequence create(double[] values, Dimension dimension) {
+            return new PackedCoordinateSequence(values, dimension);
+        }
+    };
+
+    /**
+     * The packed values
+     */
+    private final double[] values;
+
+    /**
+     * The Dimension of the values
+     */
+    private final Dimension dimension;
+
+    /**
+     * The number of values per Coordinate
+     */
+    private final int stride;
+
+    /**
+     * The offset of the Z value or -1
+     */
+    private final int zOffset;
+
+    /**
+     * The offset of the M value or -1
+     */
+    private final int mOffset;
+
+    /**
+     * Create a new PackedCoordinateSequence
+     * @param values The packed values (which are not copied)
+     * @param dimension The Dimension that determines how the values are packed
+     */
+    public PackedCoordinateSequence(double[] values, Dimension dimension) {
+        this.values = values;
+        this.dimension = dimension;
+        this.stride = dimension.getNumberOfValues();
+        this.zOffset = dimension.hasZ() ? 2 : -1;
+        this.mOffset = dimension.hasM() ? stride - 1 : -1;
+        if (values.length % stride != 0) {
+            throw new IllegalArgumentException("The number of values (" + values.length + ") must be a multiple of " + stride);
+        }
+    }
+
+    @Override
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public int size() {
+        return values.length / stride;
+    }
+
+    @Override
+    public double getX(int index) {
+        return values[index * stride];
+    }
+
+    @Override
+    public double getY(int index) {
+        return values[index * stride + 1];
+    }
+
+    @Override
+    public double getZ(int index) {
+        return zOffset < 0 ? Double.NaN : values[index * stride + zOffset];
+    }
+
+    @Override
+    public double getM(int index) {
+        return mOffset < 0 ? Double.NaN : values[index * stride + mOffset];
+    }
+
+    @Override
+    public void forEach(CoordinateConsumer consumer) {
+        for (int i = 0; i < values.length; i += stride) {
+            consumer.coordinate(values[i], values[i + 1],
+                    zOffset < 0 ? Double.NaN : values[i + zOffset],
+                    mOffset < 0 ? Double.NaN : values[i + mOffset]);
+        }
+    }
+
+}
@@ -48,4 +48,11 @@ public class Point extends Geometry {
     public int getNumberOfCoordinates() {
         return isEmpty() ? 0 : 1;
     }
+
+    @Override
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        if (!isEmpty()) {
+            consumer.coordinate(coordinate.getX(), coordinate.getY(), coordinate.getZ(), coordinate.getM());
+        }
+    }
 }
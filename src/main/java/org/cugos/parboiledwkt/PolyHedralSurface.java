@@ -46,4 +46,11 @@ public class PolyHedralSurface extends Surface {
         }
         return numberOfCoordinates;
     }
+
+    @Override
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        for(Polygon polygon : this.polygons) {
+            polygon.forEachCoordinate(consumer);
+        }
+    }
 }
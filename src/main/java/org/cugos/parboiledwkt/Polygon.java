@@ -71,4 +71,14 @@ public class Polygon extends Surface {
         }
         return numberOfCoordinates;
     }
+
+    @Override
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        if (outerLinearRing != null) {
+            outerLinearRing.forEachCoordinate(consumer);
+        }
+        for(LinearRing linearRing : innerLinearRings) {
+            linearRing.forEachCoordinate(consumer);
+        }
+    }
 }
@@ -55,4 +55,11 @@ public class Tin extends Surface {
         }
         return numberOfCoordinates;
     }
+
+    @Override
+    public void forEachCoordinate(CoordinateConsumer consumer) {
+        for(Triangle triangle : this.triangles) {
+            triangle.forEachCoordinate(consumer);
+        }
+    }
 }
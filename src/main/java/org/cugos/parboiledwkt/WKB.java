@@ -30,13 +30,13 @@ public interface WKB {
             return this.value;
         }
 
+        /**
+         * The Endians indexed by value
+         */
+        private static final Endian[] ENDIANS = values();
+
         public static Endian get(int value) {
-            for(Endian endian : values()) {
-                if (endian.getValue() == value) {
-                    return endian;
-                }
-            }
-            return null;
+            return value == 0 || value == 1 ? ENDIANS[value] : null;
         }
     }
 
@@ -72,13 +72,19 @@ public interface WKB {
             return this.value;
         }
 
-        public static GeometryType get(int value) {
-            for(GeometryType gt : values()) {
-                if (gt.getValue() == value) {
-                    return gt;
-                }
+        /**
+         * The GeometryTypes indexed by value
+         */
+        private static final GeometryType[] GEOMETRY_TYPES = new GeometryType[values().length + 1];
+
+        static {
+            for (GeometryType gt : values()) {
+                GEOMETRY_TYPES[gt.getValue()] = gt;
             }
-            return null;
+        }
+
+        public static GeometryType get(int value) {
+            return value > 0 && value < GEOMETRY_TYPES.length ? GEOMETRY_TYPES[value] : null;
         }
 
     }
@@ -0,0 +1,188 @@
+package org.cugos.parboiledwkt;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.cugos.parboiledwkt.WKB.Endian;
+import org.cugos.parboiledwkt.WKB.GeometryType;
+
+/**
+ * Find the Envelope of WKB or EWKB straight from the bytes without reading a Geometry,
+ * which is much cheaper when only the extent is needed, for example to filter by bounding box
+ * before reading the Geometries that pass.
+ * The Envelope is the same as Geometry.getEnvelope() of the Geometry that WKBReader reads,
+ * so arcs of curves are included.
+ * A WKBEnvelopeScanner is thread safe.
+ * @author Jared Erickson
+ */
+public class WKBEnvelopeScanner {
+
+    /**
+     * Find the Envelope of WKB or EWKB
+     * @param bytes The array of bytes
+     * @return The Envelope or null if the bytes don't contain a supported Geometry type or end before the Geometry does
+     */
+    public Envelope scan(byte[] bytes) {
+        return scan(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Find the Envelope of WKB or EWKB
+     * @param bytes The array of bytes
+     * @param offset The offset of the WKB in the byte array
+     * @param length The number of WKB bytes
+     * @return The Envelope or null if the bytes don't contain a supported Geometry type or end before the Geometry does
+     */
+    public Envelope scan(byte[] bytes, int offset, int length) {
+        return scan(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Find the Envelope of WKB or EWKB
+     * @param buffer The ByteBuffer with the WKB at its position.  Neither its position nor its order are changed.
+     * @return The Envelope or null if the bytes don't contain a supported Geometry type or end before the Geometry does
+     */
+    public Envelope scan(ByteBuffer buffer) {
+        Envelope.Builder builder = new Envelope.Builder();
+        try {
+            return scan(buffer, buffer.position(), builder) < 0 ? null : builder.build();
+        } catch (BufferUnderflowException e) {
+            // Like WKBReader, which can't read a Geometry whose bytes end early
+            return null;
+        }
+    }
+
+    /**
+     * Add the Coordinates of a Geometry to the Envelope.Builder
+     * @param buffer The ByteBuffer
+     * @param position The position of the Geometry
+     * @param builder The Envelope.Builder
+     * @return The position after the Geometry or -1 if the Geometry type is not supported
+     */
+    private int scan(ByteBuffer buffer, int position, Envelope.Builder builder) {
+
+        // The bytes are read in the ByteBuffer's order and reversed if the Geometry has the other order
+        WKBReader.checkRemaining(buffer, position, 1);
+        Endian endian = Endian.get(buffer.get(position));
+        if (endian == null) {
+            return -1;
+        }
+        boolean reverse = (endian == Endian.Big) != (buffer.order() == ByteOrder.BIG_ENDIAN);
+        position += 1;
+
+        WKBTypeCode code = WKBTypeCode.get(getInt(buffer, position, reverse));
+        if (code == null) {
+            return -1;
+        }
+        position += 4;
+        GeometryType geometryType = code.getGeometryType();
+        boolean hasZ = code.getDimension().hasZ();
+        boolean hasM = code.getDimension().hasM();
+        if (code.hasSrid()) {
+            position += 4;
+        }
+
+        int size = 16 + (hasZ ? 8 : 0) + (hasM ? 8 : 0);
+        if (geometryType == GeometryType.Point) {
+            addCoordinate(buffer, position, reverse, hasZ, hasM, builder);
+            position += size;
+        } else if (geometryType == GeometryType.LineString) {
+            position = addCoordinates(buffer, position, reverse, hasZ, hasM, builder);
+        } else if (geometryType == GeometryType.CircularString) {
+            int numberOfCoordinates = getInt(buffer, position, reverse);
+            int start = position + 4;
+            position = addCoordinates(buffer, position, reverse, hasZ, hasM, builder);
+            for (int i = 0; i + 2 < numberOfCoordinates; i += 2) {
+                int p = start + i * size;
+                CircularString.addArcExtremes(builder,
+                        getDouble(buffer, p, reverse), getDouble(buffer, p + 8, reverse),
+                        getDouble(buffer, p + size, reverse), getDouble(buffer, p + size + 8, reverse),
+                        getDouble(buffer, p + 2 * size, reverse), getDouble(buffer, p + 2 * size + 8, reverse));
+            }
+        } else if (geometryType == GeometryType.Polygon || geometryType == GeometryType.Triangle) {
+            int numberOfRings = getInt(buffer, position, reverse);
+            position += 4;
+            for (int i = 0; i < numberOfRings; i++) {
+                position = addCoordinates(buffer, position, reverse, hasZ, hasM, builder);
+            }
+        } else {
+            // MultiPoint, MultiLineString, MultiPolygon, GeometryCollection, Tin, CompoundCurve,
+            // MultiCurve, CurvePolygon, MultiSurface, and PolyHedralSurface are made of other Geometries
+            int numberOfGeometries = getInt(buffer, position, reverse);
+            position += 4;
+            for (int i = 0; i < numberOfGeometries && position >= 0; i++) {
+                position = scan(buffer, position, builder);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Add the number of Coordinates and then each Coordinate to the Envelope.Builder
+     * @param buffer The ByteBuffer
+     * @param position The position of the number of Coordinates
+     * @param reverse Whether to reverse the bytes
+     * @param hasZ Whether there are Z values
+     * @param hasM Whether there are M values
+     * @param builder The Envelope.Builder
+     * @return The position after the Coordinates
+     */
+    private int addCoordinates(ByteBuffer buffer, int position, boolean reverse, boolean hasZ, boolean hasM, Envelope.Builder builder) {
+        int numberOfCoordinates = getInt(buffer, position, reverse);
+        position += 4;
+        int size = 16 + (hasZ ? 8 : 0) + (hasM ? 8 : 0);
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            addCoordinate(buffer, position, reverse, hasZ, hasM, builder);
+            position += size;
+        }
+        return position;
+    }
+
+    /**
+     * Add a Coordinate to the Envelope.Builder
+     * @param buffer The ByteBuffer
+     * @param position The position of the Coordinate
+     * @param reverse Whether to reverse the bytes
+     * @param hasZ Whether there are Z values
+     * @param hasM Whether there are M values
+     * @param builder The Envelope.Builder
+     */
+    private void addCoordinate(ByteBuffer buffer, int position, boolean reverse, boolean hasZ, boolean hasM, Envelope.Builder builder) {
+        double x = getDouble(buffer, position, reverse);
+        double y = getDouble(buffer, position + 8, reverse);
+        double z = hasZ ? getDouble(buffer, position + 16, reverse) : Double.NaN;
+        double m = hasM ? getDouble(buffer, position + (hasZ ? 24 : 16), reverse) : Double.NaN;
+        builder.coordinate(x, y, z, m);
+    }
+
+    /**
+     * Read an int
+     * @param buffer The ByteBuffer
+     * @param position The position
+     * @param reverse Whether to reverse the bytes
+     * @return The int
+     * @throws BufferUnderflowException if the ByteBuffer ends before the int does
+     */
+    private static int getInt(ByteBuffer buffer, int position, boolean reverse) {
+        WKBReader.checkRemaining(buffer, position, 4);
+        int value = buffer.getInt(position);
+        return reverse ? Integer.reverseBytes(value) : value;
+    }
+
+    /**
+     * Read a double
+     * @param buffer The ByteBuffer
+     * @param position The position
+     * @param reverse Whether to reverse the bytes
+     * @return The double
+     * @throws BufferUnderflowException if the ByteBuffer ends before the double does
+     */
+    private static double getDouble(ByteBuffer buffer, int position, boolean reverse) {
+        WKBReader.checkRemaining(buffer, position, 8);
+        if (reverse) {
+            return Double.longBitsToDouble(Long.reverseBytes(buffer.getLong(position)));
+        }
+        return buffer.getDouble(position);
+    }
+
+}
@@ -1,12 +1,11 @@
 package org.cugos.parboiledwkt;
 
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.ArrayList;
-import java.util.List;
 import org.cugos.parboiledwkt.WKB.Endian;
 import org.cugos.parboiledwkt.WKB.GeometryType;
-import org.cugos.parboiledwkt.WKB.GeometryTypeFlag;
 
 /**
  * A WKB and EWKB Geometry Reader
@@ -14,6 +13,51 @@ import org.cugos.parboiledwkt.WKB.GeometryTypeFlag;
  */
 public class WKBReader {
 
+    /**
+     * The CoordinateSequenceFactory or null for the default CoordinateSequenceFactory
+     */
+    private final CoordinateSequenceFactory factory;
+
+    /**
+     * The most bytes a thread keeps to decode hex WKB into.  Bigger Geometries get their own, exactly sized array.
+     */
+    private static final int MAX_HEX_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * The bytes that each thread decodes hex WKB into, shared by all WKBReaders and reused because Geometries
+     * never keep them.  They only grow when a Geometry doesn't fit, up to MAX_HEX_BYTES.
+     */
+    private static final ThreadLocal<byte[]> HEX_BYTES = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[1024];
+        }
+    };
+
+    /**
+     * Create a new WKBReader that uses the default CoordinateSequenceFactory
+     */
+    public WKBReader() {
+        this(null);
+    }
+
+    /**
+     * Create a new WKBReader
+     * @param factory The CoordinateSequenceFactory that stores the coordinates or null for the default
+     * CoordinateSequenceFactory
+     */
+    public WKBReader(CoordinateSequenceFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Get the CoordinateSequenceFactory
+     * @return The CoordinateSequenceFactory or null for the default CoordinateSequenceFactory
+     */
+    public CoordinateSequenceFactory getFactory() {
+        return factory;
+    }
+
     /**
      * Read a Geometry from an array of bytes.
      * @param bytes The array of bytes
@@ -24,203 +68,287 @@ public class WKBReader {
         return read(buffer);
     }
 
+    /**
+     * Read a Geometry from an array of bytes only if its Envelope intersects the query Envelope.
+     * The WKBEnvelopeScanner finds the extent first, so Geometries outside of the query Envelope are never built.
+     * @param bytes The array of bytes
+     * @param envelope The query Envelope
+     * @return A Geometry, or null if its Envelope doesn't intersect the query Envelope or it can't be read,
+     * including when the bytes end before the Geometry does
+     */
+    public Geometry read(byte[] bytes, Envelope envelope) {
+        Envelope extent = new WKBEnvelopeScanner().scan(bytes);
+        if (extent == null || !extent.intersects(envelope)) {
+            return null;
+        }
+        return read(bytes);
+    }
+
+    /**
+     * Read only the header of WKB or EWKB now and return a LazyWKBGeometry that reads the rest of it when needed.
+     * The bytes are not copied, so they must not be changed.
+     * @param bytes The array of bytes
+     * @return A LazyWKBGeometry or null if the header can't be read
+     */
+    public LazyWKBGeometry readLazy(byte[] bytes) {
+        return LazyWKBGeometry.create(bytes, this);
+    }
+
     /**
      * Read a Geometry from a hex String
      * @param hex The hex String
      * @return A Geometry or null
      */
     public Geometry read(String hex) {
-        return read(toBytes(hex));
+        return readHex(hex);
+    }
+
+    /**
+     * Read a Geometry from hex characters.  The hex is decoded with a lookup table into bytes that
+     * are reused by the next read on the same thread.
+     * @param hex The hex characters
+     * @return A Geometry or null if the characters aren't hex or the Geometry can't be read
+     */
+    public Geometry readHex(CharSequence hex) {
+        byte[] bytes = getHexBytes(hex.length());
+        return HexDecoder.decode(hex, 0, hex.length(), bytes) ? read(ByteBuffer.wrap(bytes, 0, hex.length() / 2)) : null;
     }
 
     /**
-     * Read a Geometry from a ByteBuffer
+     * Read a Geometry from an array of hex characters
+     * @param hex The array of hex characters
+     * @param offset The offset of the first hex character
+     * @param length The number of hex characters
+     * @return A Geometry or null if the characters aren't hex or the Geometry can't be read
+     */
+    public Geometry readHex(char[] hex, int offset, int length) {
+        byte[] bytes = getHexBytes(length);
+        return HexDecoder.decode(hex, offset, length, bytes) ? read(ByteBuffer.wrap(bytes, 0, length / 2)) : null;
+    }
+
+    /**
+     * Read a Geometry from ASCII hex characters, like a line of a PostGIS COPY ... TO or CSV file,
+     * without decoding them into a String first
+     * @param hex The array of ASCII hex characters
+     * @param offset The offset of the first hex character
+     * @param length The number of hex characters
+     * @return A Geometry or null if the characters aren't hex or the Geometry can't be read
+     */
+    public Geometry readHex(byte[] hex, int offset, int length) {
+        byte[] bytes = getHexBytes(length);
+        return HexDecoder.decode(hex, offset, length, bytes) ? read(ByteBuffer.wrap(bytes, 0, length / 2)) : null;
+    }
+
+    /**
+     * Read a Geometry from a ByteBuffer in place, without copying, so it works with heap, direct,
+     * and memory mapped ByteBuffers.  The Geometry starts at the position of the ByteBuffer and the position is
+     * moved to the end of the Geometry, so the number of bytes read is the change in position and
+     * Geometries stored one after another can be read in a loop.  The byte order of the ByteBuffer is not changed.
      * @param buffer The ByteBuffer
-     * @return A Geometry or null
+     * @return A Geometry, or null if it can't be read in which case the position is not changed
      */
-    private Geometry read(ByteBuffer buffer) {
+    public Geometry read(ByteBuffer buffer) {
+        GeometryBuilder builder = new GeometryBuilder(false, factory);
+        return read(buffer, builder) ? builder.getGeometry() : null;
+    }
 
-        // Determine byte order
-        Endian endian = Endian.get(buffer.get());
-        if (endian == Endian.Big) {
-            buffer.order(ByteOrder.BIG_ENDIAN);
-        } else {
-            buffer.order(ByteOrder.LITTLE_ENDIAN);
-        }
+    /**
+     * Read an array of bytes and send each part of the Geometry to the GeometryHandler instead of building a Geometry.
+     * To build the same Geometry as read(byte[]), use a GeometryBuilder created with new GeometryBuilder(false),
+     * where every part keeps the Dimension and SRID of its own header.
+     * @param bytes The array of bytes
+     * @param handler The GeometryHandler
+     * @return Whether the Geometry could be read.  If not, the GeometryHandler may have received some events.
+     */
+    public boolean read(byte[] bytes, GeometryHandler handler) {
+        return read(ByteBuffer.wrap(bytes), handler);
+    }
 
-        // Determine geometry type
-        int geometryTypeInt = buffer.getInt();
-        int gt = geometryTypeInt;
+    /**
+     * Read a hex String and send each part of the Geometry to the GeometryHandler instead of building a Geometry
+     * @param hex The hex String
+     * @param handler The GeometryHandler
+     * @return Whether the Geometry could be read.  If not, the GeometryHandler may have received some events.
+     */
+    public boolean read(String hex, GeometryHandler handler) {
+        return readHex(hex, handler);
+    }
 
-        // Determine dimension
-        boolean hasM = false;
-        boolean hasZ = false;
-        boolean hasSRID = false;
-        if ((geometryTypeInt & GeometryTypeFlag.M.getValue()) == GeometryTypeFlag.M.getValue()) {
-            hasM = true;
-            gt = gt - GeometryTypeFlag.M.getValue();
+    /**
+     * Read hex characters and send each part of the Geometry to the GeometryHandler instead of building a Geometry
+     * @param hex The hex characters
+     * @param handler The GeometryHandler
+     * @return Whether the Geometry could be read.  If not, the GeometryHandler may have received some events.
+     */
+    public boolean readHex(CharSequence hex, GeometryHandler handler) {
+        byte[] bytes = getHexBytes(hex.length());
+        return HexDecoder.decode(hex, 0, hex.length(), bytes) && read(ByteBuffer.wrap(bytes, 0, hex.length() / 2), handler);
+    }
+
+    /**
+     * Read a Geometry from a ByteBuffer in place and send each part of it to the GeometryHandler instead of
+     * building a Geometry.  Like read(ByteBuffer), the position is moved to the end of the Geometry.
+     * @param buffer The ByteBuffer
+     * @param handler The GeometryHandler
+     * @return Whether the Geometry could be read.  If not, the position is not changed but the GeometryHandler
+     * may have received some events.
+     */
+    public boolean read(ByteBuffer buffer, GeometryHandler handler) {
+        if (handler instanceof GeometryBuilder) {
+            ((GeometryBuilder) handler).reset();
         }
-        if ((geometryTypeInt & GeometryTypeFlag.Z.getValue()) == GeometryTypeFlag.Z.getValue()) {
-            hasZ = true;
-            gt = gt - GeometryTypeFlag.Z.getValue();
+        ByteOrder order = buffer.order();
+        int position = buffer.position();
+        boolean read = false;
+        try {
+            read = readGeometry(buffer, handler);
+        } finally {
+            buffer.order(order);
+            if (!read) {
+                // Call Buffer.position(int) because ByteBuffer.position(int) doesn't exist on Java 8
+                ((Buffer) buffer).position(position);
+            }
         }
-        if ((geometryTypeInt & GeometryTypeFlag.SRID.getValue()) == GeometryTypeFlag.SRID.getValue()) {
-            hasSRID = true;
-            gt = gt - GeometryTypeFlag.SRID.getValue();
+        return read;
+    }
+
+    /**
+     * Find the number of bytes of the WKB Geometry at the offset by reading only the headers and counts,
+     * without reading any Coordinates
+     * @param bytes The array of bytes
+     * @param offset The offset of the Geometry
+     * @return The number of bytes or -1 if the Geometry can't be read
+     * @throws BufferUnderflowException if the bytes end before the Geometry does
+     */
+    public int measure(byte[] bytes, int offset) {
+        int end = skipGeometry(ByteBuffer.wrap(bytes), offset);
+        return end < 0 ? -1 : end - offset;
+    }
+
+    /**
+     * Find the number of bytes of the WKB Geometry at the position of the ByteBuffer by reading only the headers
+     * and counts, without reading any Coordinates.  Neither the position nor the byte order is changed.
+     * @param buffer The ByteBuffer
+     * @return The number of bytes or -1 if the Geometry can't be read
+     * @throws BufferUnderflowException if the ByteBuffer ends before the Geometry does
+     */
+    public int measure(ByteBuffer buffer) {
+        int end = skipGeometry(buffer, buffer.position());
+        return end < 0 ? -1 : end - buffer.position();
+    }
+
+    /**
+     * Move the position of the ByteBuffer past the WKB Geometry at its position without reading any Coordinates,
+     * which is how WKB stored back to back can be split up or indexed without reading every Geometry
+     * @param buffer The ByteBuffer
+     * @return The number of bytes skipped or -1 if the Geometry can't be read in which case the position
+     * is not changed
+     * @throws BufferUnderflowException if the ByteBuffer ends before the Geometry does
+     */
+    public int skip(ByteBuffer buffer) {
+        int length = measure(buffer);
+        if (length >= 0) {
+            ((Buffer) buffer).position(buffer.position() + length);
         }
+        return length;
+    }
 
-        GeometryType geometryType = GeometryType.get(gt);
+    /**
+     * Read a Geometry from a ByteBuffer and send each part of it to the GeometryHandler
+     * @param buffer The ByteBuffer
+     * @param handler The GeometryHandler
+     * @return Whether the Geometry could be read
+     */
+    private boolean readGeometry(ByteBuffer buffer, GeometryHandler handler) {
 
-        Dimension dimension;
-        if (hasZ && hasM) {
-            dimension = Dimension.ThreeMeasured;
-        } else if (hasZ) {
-            dimension = Dimension.Three;
-        } else if (hasM) {
-            dimension = Dimension.TwoMeasured;
+        // Determine byte order
+        Endian endian = Endian.get(buffer.get());
+        if (endian == null) {
+            return false;
+        } else if (endian == Endian.Big) {
+            buffer.order(ByteOrder.BIG_ENDIAN);
         } else {
-            dimension = Dimension.Two;
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        // Determine geometry type, dimension, and whether there is an SRID from EWKB flags or ISO WKB codes
+        WKBTypeCode code = WKBTypeCode.get(buffer.getInt());
+        if (code == null) {
+            return false;
         }
+        GeometryType geometryType = code.getGeometryType();
+        Dimension dimension = code.getDimension();
 
         // Extract SRID if present
         String srid = null;
-        if (hasSRID) {
+        if (code.hasSrid()) {
             srid = String.valueOf(buffer.getInt());
         }
 
         // Extract Geometry
+        handler.startGeometry(geometryType, dimension, srid);
         if (geometryType == GeometryType.Point) {
-            Coordinate coordinate = getCoordinate(buffer, dimension);
-            return new Point(coordinate, dimension, srid);
-        } else if (geometryType == GeometryType.LineString) {
-            int numberOfCoordinates = buffer.getInt();
-            List<Coordinate> coordinates = new ArrayList<Coordinate>(numberOfCoordinates);
-            for(int i = 0; i<numberOfCoordinates; i++) {
-                coordinates.add(getCoordinate(buffer, dimension));
-            }
-            return new LineString(coordinates, dimension, srid);
-        } else if (geometryType == GeometryType.Polygon) {
+            startCoordinates(buffer, 1, dimension, handler);
+            readCoordinate(buffer, dimension, handler);
+        } else if (geometryType == GeometryType.LineString || geometryType == GeometryType.CircularString) {
+            readCoordinates(buffer, dimension, handler);
+        } else if (geometryType == GeometryType.Polygon || geometryType == GeometryType.Triangle) {
             int numberOfRings = buffer.getInt();
-            List<LinearRing> rings = new ArrayList<LinearRing>(numberOfRings);
             for (int i = 0; i < numberOfRings; i++) {
-                int numberOfCoordinates = buffer.getInt();
-                List<Coordinate> coordinates = new ArrayList<Coordinate>(numberOfCoordinates);
-                for (int j = 0; j < numberOfCoordinates; j++) {
-                    coordinates.add(getCoordinate(buffer, dimension));
-                }
-                rings.add(new LinearRing(coordinates, dimension, srid));
-            }
-            return new Polygon(rings.get(0), rings.subList(1, rings.size()), dimension, srid);
-        } else if (geometryType == GeometryType.MultiPoint) {
-            int numberOfPoints = buffer.getInt();
-            List<Point> points = new ArrayList<Point>(numberOfPoints);
-            for (int i = 0; i < numberOfPoints; i++) {
-                Point point = (Point) read(buffer);
-                points.add(point);
-            }
-            return new MultiPoint(points, dimension, srid);
-        } else if (geometryType == GeometryType.MultiLineString) {
-            int numberOfLines = buffer.getInt();
-            List<LineString> lines = new ArrayList<LineString>(numberOfLines);
-            for (int i = 0; i < numberOfLines; i++) {
-                LineString line = (LineString) read(buffer);
-                lines.add(line);
-            }
-            return new MultiLineString(lines, dimension, srid);
-        } else if (geometryType == GeometryType.MultiPolygon) {
-            int numberOfPolygons = buffer.getInt();
-            List<Polygon> polygons = new ArrayList<Polygon>(numberOfPolygons);
-            for (int i = 0; i < numberOfPolygons; i++) {
-                Polygon polygon = (Polygon) read(buffer);
-                polygons.add(polygon);
+                handler.startRing();
+                readCoordinates(buffer, dimension, handler);
+                handler.endRing();
             }
-            return new MultiPolygon(polygons, dimension, srid);
-        } else if (geometryType == GeometryType.GeometryCollection) {
+        } else {
+            // MultiPoint, MultiLineString, MultiPolygon, GeometryCollection, Tin, CompoundCurve,
+            // MultiCurve, CurvePolygon, MultiSurface, and PolyHedralSurface are made of other Geometries
             int numberOfGeometries = buffer.getInt();
-            List<Geometry> geometries = new ArrayList<Geometry>(numberOfGeometries);
             for (int i = 0; i < numberOfGeometries; i++) {
-                Geometry geometry = read(buffer);
-                geometries.add(geometry);
-            }
-            return new GeometryCollection(geometries, dimension, srid);
-        } else if (geometryType == GeometryType.CircularString) {
-            int numberOfCoordinates = buffer.getInt();
-            List<Coordinate> coordinates = new ArrayList<Coordinate>(numberOfCoordinates);
-            for(int i = 0; i<numberOfCoordinates; i++) {
-                coordinates.add(getCoordinate(buffer, dimension));
-            }
-            return new CircularString(coordinates, dimension, srid);
-        } else if (geometryType == GeometryType.Triangle) {
-            int numberOfRings = buffer.getInt();
-            List<LinearRing> rings = new ArrayList<LinearRing>(numberOfRings);
-            for (int i = 0; i < numberOfRings; i++) {
-                int numberOfCoordinates = buffer.getInt();
-                List<Coordinate> coordinates = new ArrayList<Coordinate>(numberOfCoordinates);
-                for (int j = 0; j < numberOfCoordinates; j++) {
-                    coordinates.add(getCoordinate(buffer, dimension));
+                if (!readGeometry(buffer, handler)) {
+                    return false;
                 }
-                rings.add(new LinearRing(coordinates, dimension, srid));
             }
-            return new Triangle(rings.get(0), rings.subList(1, rings.size()), dimension, srid);
-        } else if (geometryType == GeometryType.Tin) {
-            int numberOfTriangles = buffer.getInt();
-            List<Triangle> triangles = new ArrayList<Triangle>(numberOfTriangles);
-            for (int i = 0; i < numberOfTriangles; i++) {
-                Triangle triangle = (Triangle) read(buffer);
-                triangles.add(triangle);
-            }
-            return new Tin(triangles, dimension, srid);
-        } else if (geometryType == GeometryType.CompoundCurve) {
-            int numberOfCurves = buffer.getInt();
-            List<Curve> curves = new ArrayList<Curve>(numberOfCurves);
-            for (int i = 0; i < numberOfCurves; i++) {
-                Curve curve = (Curve) read(buffer);
-                curves.add(curve);
-            }
-            return new CompoundCurve(curves, dimension, srid);
-        } else if (geometryType == GeometryType.MultiCurve) {
-            int numberOfCurves = buffer.getInt();
-            List<Curve> curves = new ArrayList<Curve>(numberOfCurves);
-            for (int i = 0; i < numberOfCurves; i++) {
-                Curve curve = (Curve) read(buffer);
-                curves.add(curve);
-            }
-            return new MultiCurve(curves, dimension, srid);
-        } else if (geometryType == GeometryType.CurvePolygon) {
-            int numberOfCurves = buffer.getInt();
-            List<Curve> curves = new ArrayList<Curve>(numberOfCurves);
-            for (int i = 0; i < numberOfCurves; i++) {
-                Curve curve = (Curve) read(buffer);
-                curves.add(curve);
-            }
-            return new CurvePolygon(curves.get(0), curves.subList(1, curves.size()), dimension, srid);
-        } else if (geometryType == GeometryType.MultiSurface) {
-            int numberOfSurfaces = buffer.getInt();
-            List<Surface> surfaces = new ArrayList<Surface>(numberOfSurfaces);
-            for (int i = 0; i < numberOfSurfaces; i++) {
-                Surface surface = (Surface) read(buffer);
-                surfaces.add(surface);
-            }
-            return new MultiSurface(surfaces, dimension, srid);
-        } else if (geometryType == GeometryType.PolyHedralSurface) {
-            int numberOfPolygons = buffer.getInt();
-            List<Polygon> polygons = new ArrayList<Polygon>(numberOfPolygons);
-            for (int i = 0; i < numberOfPolygons; i++) {
-                Polygon polygon = (Polygon) read(buffer);
-                polygons.add(polygon);
-            }
-            return new PolyHedralSurface(polygons, dimension, srid);
         }
-        return null;
+        handler.endGeometry(dimension);
+        return true;
     }
 
     /**
-     * Get Coordinate of the given Dimension from the ByteBuffer
+     * Read the number of Coordinates and then each Coordinate
      * @param buffer The ByteBuffer
      * @param dimension The Dimension
-     * @return A Coordinate
+     * @param handler The GeometryHandler
      */
-    private Coordinate getCoordinate(ByteBuffer buffer, Dimension dimension) {
+    private void readCoordinates(ByteBuffer buffer, Dimension dimension, GeometryHandler handler) {
+        int numberOfCoordinates = buffer.getInt();
+        startCoordinates(buffer, numberOfCoordinates, dimension, handler);
+        for (int i = 0; i < numberOfCoordinates; i++) {
+            readCoordinate(buffer, dimension, handler);
+        }
+    }
+
+    /**
+     * Tell a GeometryBuilder how many Coordinates of the Dimension come next so it can pack them as they are read.
+     * A number of Coordinates that doesn't fit in the rest of the ByteBuffer is ignored because reading them
+     * fails anyway, and a corrupt count shouldn't make the GeometryBuilder allocate for it.
+     * @param buffer The ByteBuffer
+     * @param count The number of Coordinates
+     * @param dimension The Dimension
+     * @param handler The GeometryHandler
+     */
+    private static void startCoordinates(ByteBuffer buffer, int count, Dimension dimension, GeometryHandler handler) {
+        if (handler instanceof GeometryBuilder && (long) count * 8 * dimension.getNumberOfValues() <= buffer.remaining()) {
+            ((GeometryBuilder) handler).startCoordinates(Math.max(0, count), dimension);
+        }
+    }
+
+    /**
+     * Read a Coordinate of the given Dimension from the ByteBuffer
+     * @param buffer The ByteBuffer
+     * @param dimension The Dimension
+     * @param handler The GeometryHandler
+     */
+    private void readCoordinate(ByteBuffer buffer, Dimension dimension, GeometryHandler handler) {
         double x = buffer.getDouble();
         double y = buffer.getDouble();
         double z = Double.NaN;
@@ -231,21 +359,146 @@ public class WKBReader {
         if (dimension == Dimension.ThreeMeasured || dimension == Dimension.TwoMeasured) {
             m = buffer.getDouble();
         }
-        return new Coordinate(x,y,z,m);
+        handler.coordinate(x, y, z, m);
     }
 
     /**
-     * Convert a hex String into a byte Array
-     * @param hexString The hex String
-     * @return An array of bytes
+     * Find the end of the WKB Geometry at the position using only its headers and counts
+     * @param buffer The ByteBuffer
+     * @param position The position of the Geometry
+     * @return The position after the Geometry or -1 if the Geometry can't be read
+     * @throws BufferUnderflowException if the ByteBuffer ends before the Geometry does
      */
-    private static byte[] toBytes(String hexString) {
-        int len = hexString.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(hexString.charAt(i), 16) << 4)
-                + Character.digit(hexString.charAt(i+1), 16));
+    private static int skipGeometry(ByteBuffer buffer, int position) {
+        checkRemaining(buffer, position, 5);
+        Endian endian = Endian.get(buffer.get(position));
+        if (endian == null) {
+            return -1;
+        }
+        boolean reverse = (endian == Endian.Big) != (buffer.order() == ByteOrder.BIG_ENDIAN);
+        WKBTypeCode code = WKBTypeCode.get(getInt(buffer, position + 1, reverse));
+        if (code == null) {
+            return -1;
+        }
+        position += code.hasSrid() ? 9 : 5;
+        int coordinateSize = 8 * code.getDimension().getNumberOfValues();
+        GeometryType geometryType = code.getGeometryType();
+        if (geometryType == GeometryType.Point) {
+            return checkRemaining(buffer, position, coordinateSize);
+        } else if (geometryType == GeometryType.LineString || geometryType == GeometryType.CircularString) {
+            return skipCoordinates(buffer, position, reverse, coordinateSize);
+        } else if (geometryType == GeometryType.Polygon || geometryType == GeometryType.Triangle) {
+            int numberOfRings = getInt(buffer, position, reverse);
+            position += 4;
+            for (int i = 0; i < numberOfRings; i++) {
+                position = skipCoordinates(buffer, position, reverse, coordinateSize);
+            }
+            return position;
+        } else {
+            int numberOfGeometries = getInt(buffer, position, reverse);
+            position += 4;
+            for (int i = 0; i < numberOfGeometries && position >= 0; i++) {
+                position = skipGeometry(buffer, position);
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Find the end of the number of Coordinates and the Coordinates at the position
+     * @param buffer The ByteBuffer
+     * @param position The position of the number of Coordinates
+     * @param reverse Whether to reverse the bytes
+     * @param coordinateSize The number of bytes of each Coordinate
+     * @return The position after the Coordinates
+     * @throws BufferUnderflowException if the ByteBuffer ends before the Coordinates do
+     */
+    private static int skipCoordinates(ByteBuffer buffer, int position, boolean reverse, int coordinateSize) {
+        // Like reading, a negative number of Coordinates is no Coordinates
+        int numberOfCoordinates = Math.max(0, getInt(buffer, position, reverse));
+        return checkRemaining(buffer, position + 4, (long) numberOfCoordinates * coordinateSize);
+    }
+
+    /**
+     * Read an int at the position in the byte order of the Geometry
+     * @param buffer The ByteBuffer
+     * @param position The position
+     * @param reverse Whether to reverse the bytes
+     * @return The int
+     * @throws BufferUnderflowException if the ByteBuffer ends before the int does
+     */
+    private static int getInt(ByteBuffer buffer, int position, boolean reverse) {
+        checkRemaining(buffer, position, 4);
+        int value = buffer.getInt(position);
+        return reverse ? Integer.reverseBytes(value) : value;
+    }
+
+    /**
+     * Make sure the ByteBuffer has a number of bytes at the position
+     * @param buffer The ByteBuffer
+     * @param position The position
+     * @param length The number of bytes
+     * @return The position after the bytes
+     * @throws BufferUnderflowException if the ByteBuffer ends before the bytes do
+     */
+    static int checkRemaining(ByteBuffer buffer, int position, long length) {
+        if (position + length > buffer.limit()) {
+            throw new Truncated(position + length);
+        }
+        return (int) (position + length);
+    }
+
+    /**
+     * Get this thread's bytes to decode hex into, or an array that isn't kept for Geometries bigger than MAX_HEX_BYTES
+     * @param length The number of hex characters
+     * @return An array of at least length / 2 bytes
+     */
+    private static byte[] getHexBytes(int length) {
+        byte[] bytes = HEX_BYTES.get();
+        int numberOfBytes = length / 2;
+        if (bytes.length < numberOfBytes) {
+            if (numberOfBytes > MAX_HEX_BYTES) {
+                return new byte[numberOfBytes];
+            }
+            bytes = new byte[Math.min(MAX_HEX_BYTES, Math.max(numberOfBytes, bytes.length * 2))];
+            HEX_BYTES.set(bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * The BufferUnderflowException thrown when measuring a Geometry that doesn't fit in the ByteBuffer.
+     * It knows how far the ByteBuffer has to go before measuring can get any further, which lets
+     * WKBStreamReader read just enough bytes instead of trying again after every read.
+     */
+    static final class Truncated extends BufferUnderflowException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The position the ByteBuffer has to reach
+         */
+        private final long end;
+
+        /**
+         * Create a new Truncated
+         * @param end The position the ByteBuffer has to reach
+         */
+        Truncated(long end) {
+            this.end = end;
+        }
+
+        /**
+         * Get the position the ByteBuffer has to reach before measuring can get any further
+         * @return The position
+         */
+        long getEnd() {
+            return end;
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
         }
-        return data;
     }
-}
\ No newline at end of file
+}
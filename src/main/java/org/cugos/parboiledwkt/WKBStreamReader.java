@@ -0,0 +1,206 @@
+package org.cugos.parboiledwkt;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read WKB or EWKB Geometries stored back to back in an InputStream or a blocking ReadableByteChannel
+ * one Geometry at a time.  The bytes are read into a buffer that is reused and only grows when a single
+ * Geometry doesn't fit in it.
+ * @author Jared Erickson
+ */
+public class WKBStreamReader implements Iterator<Geometry>, Closeable {
+
+    /**
+     * The initial size of the buffer in bytes
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The largest buffer in bytes, which is about the largest array the JVM can make
+     */
+    private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * The ReadableByteChannel with the WKB
+     */
+    private final ReadableByteChannel input;
+
+    /**
+     * The WKBReader that reads each Geometry
+     */
+    private final WKBReader reader;
+
+    /**
+     * The bytes that have been read from the input but not decoded, between the position and the limit
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Whether the end of the input has been reached
+     */
+    private boolean done;
+
+    /**
+     * The number of bytes that were decoded before the start of the buffer
+     */
+    private long offset;
+
+    /**
+     * Create a new WKBStreamReader
+     * @param input The ReadableByteChannel with the WKB
+     */
+    public WKBStreamReader(ReadableByteChannel input) {
+        this(input, new WKBReader());
+    }
+
+    /**
+     * Create a new WKBStreamReader
+     * @param input The ReadableByteChannel with the WKB
+     * @param reader The WKBReader that reads each Geometry
+     */
+    public WKBStreamReader(ReadableByteChannel input, WKBReader reader) {
+        this.input = input;
+        this.reader = reader;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        flip(this.buffer);
+    }
+
+    /**
+     * Create a new WKBStreamReader
+     * @param input The InputStream with the WKB
+     */
+    public WKBStreamReader(InputStream input) {
+        this(input, new WKBReader());
+    }
+
+    /**
+     * Create a new WKBStreamReader
+     * @param input The InputStream with the WKB
+     * @param reader The WKBReader that reads each Geometry
+     */
+    public WKBStreamReader(InputStream input, WKBReader reader) {
+        this(Channels.newChannel(input), reader);
+    }
+
+    /**
+     * Whether there is another Geometry
+     * @return Whether there is another Geometry
+     * @throws UncheckedIOException if the input can't be read
+     */
+    @Override
+    public boolean hasNext() {
+        try {
+            return buffer.hasRemaining() || fill(1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read the next Geometry
+     * @return The Geometry
+     * @throws NoSuchElementException if there are no more Geometries
+     * @throws UncheckedIOException if the input can't be read, ends in the middle of a Geometry,
+     * or has a Geometry that can't be read, after which the rest of the input can't be read either
+     */
+    @Override
+    public Geometry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            while (true) {
+                int start = buffer.position();
+                try {
+                    // Measuring only walks the headers and counts, so the Geometry is decoded once
+                    // after all of its bytes have been read instead of after every read
+                    if (reader.measure(buffer) < 0) {
+                        throw new IOException("Unable to read the WKB Geometry at byte " + (offset + start));
+                    }
+                } catch (WKBReader.Truncated e) {
+                    if (!fill(e.getEnd() - start)) {
+                        throw new EOFException("The input ends in the middle of the WKB Geometry at byte "
+                                + (offset + buffer.position()));
+                    }
+                    continue;
+                }
+                Geometry geometry = reader.read(buffer);
+                if (geometry == null) {
+                    throw new IOException("Unable to read the WKB Geometry at byte " + (offset + start));
+                }
+                return geometry;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Geometries can't be removed
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Close the input
+     * @throws IOException if the input can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        done = true;
+        input.close();
+    }
+
+    /**
+     * Keep the bytes that haven't been decoded and read more bytes after them until there are at least
+     * the given number of bytes.  The buffer grows as the bytes arrive, at most doubling each time,
+     * so a corrupt count in a header ends with the input instead of allocating a huge buffer first.
+     * @param length The number of bytes that are needed
+     * @return Whether there are at least that many bytes
+     * @throws IOException if the input can't be read or the bytes can't fit in a buffer
+     */
+    private boolean fill(long length) throws IOException {
+        offset += buffer.position();
+        buffer.compact();
+        while (!done && buffer.position() < length) {
+            if (!buffer.hasRemaining()) {
+                if (buffer.capacity() == MAX_BUFFER_SIZE) {
+                    throw new IOException("The WKB Geometry at byte " + offset + " needs more than "
+                            + MAX_BUFFER_SIZE + " bytes");
+                }
+                ByteBuffer larger = ByteBuffer.allocate((int) Math.min(length,
+                        Math.min(MAX_BUFFER_SIZE, (long) buffer.capacity() * 2)));
+                flip(buffer);
+                larger.put(buffer);
+                buffer = larger;
+            }
+            if (input.read(buffer) < 0) {
+                done = true;
+            }
+        }
+        flip(buffer);
+        return buffer.remaining() >= length;
+    }
+
+    /**
+     * Flip the buffer by calling Buffer.flip() because ByteBuffer.flip() doesn't exist on Java 8
+     * @param buffer The ByteBuffer
+     */
+    private static void flip(ByteBuffer buffer) {
+        ((Buffer) buffer).flip();
+    }
+
+}
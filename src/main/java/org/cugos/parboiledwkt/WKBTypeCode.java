@@ -0,0 +1,122 @@
+package org.cugos.parboiledwkt;
+
+import org.cugos.parboiledwkt.WKB.GeometryType;
+import org.cugos.parboiledwkt.WKB.GeometryTypeFlag;
+
+/**
+ * The Geometry type, Dimension, and SRID flag encoded in the type int of a WKB Geometry.
+ * EWKB flags and ISO WKB's 1000 (Z), 2000 (M), and 3000 (ZM) are both understood, and every
+ * combination is decoded ahead of time so get is a table lookup.
+ * @author Jared Erickson
+ */
+final class WKBTypeCode {
+
+    /**
+     * The number of Geometry type values, 0 to 17
+     */
+    private static final int NUMBER_OF_TYPES = 18;
+
+    /**
+     * The bits of the type int that aren't EWKB flags
+     */
+    private static final int TYPE_MASK = ~(GeometryTypeFlag.Z.getValue() | GeometryTypeFlag.M.getValue()
+            | GeometryTypeFlag.SRID.getValue());
+
+    /**
+     * Every WKBTypeCode indexed by EWKB flags, then the ISO thousands, then the Geometry type value.
+     * Codes that aren't readable Geometry types are null.
+     */
+    private static final WKBTypeCode[] CODES = new WKBTypeCode[8 * 4 * NUMBER_OF_TYPES];
+
+    static {
+        for (int flags = 0; flags < 8; flags++) {
+            for (int iso = 0; iso < 4; iso++) {
+                for (int value = 0; value < NUMBER_OF_TYPES; value++) {
+                    GeometryType geometryType = GeometryType.get(value);
+                    if (geometryType != null && geometryType != GeometryType.Curve
+                            && geometryType != GeometryType.Surface) {
+                        boolean hasZ = (flags & 4) != 0 || iso == 1 || iso == 3;
+                        boolean hasM = (flags & 2) != 0 || iso == 2 || iso == 3;
+                        CODES[(flags * 4 + iso) * NUMBER_OF_TYPES + value] =
+                                new WKBTypeCode(geometryType, Dimension.get(hasZ, hasM), (flags & 1) != 0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The Geometry type
+     */
+    private final GeometryType geometryType;
+
+    /**
+     * The Dimension
+     */
+    private final Dimension dimension;
+
+    /**
+     * Whether an SRID follows the type int
+     */
+    private final boolean srid;
+
+    /**
+     * Create a new WKBTypeCode
+     * @param geometryType The Geometry type
+     * @param dimension The Dimension
+     * @param srid Whether an SRID follows the type int
+     */
+    private WKBTypeCode(GeometryType geometryType, Dimension dimension, boolean srid) {
+        this.geometryType = geometryType;
+        this.dimension = dimension;
+        this.srid = srid;
+    }
+
+    /**
+     * Decode the type int of a WKB Geometry
+     * @param code The type int
+     * @return The WKBTypeCode or null if the code isn't a Geometry type that can be read
+     */
+    static WKBTypeCode get(int code) {
+        // Z, M, and SRID are the top three bits
+        int flags = code >>> 29;
+        int type = code & TYPE_MASK;
+        int iso = 0;
+        if (type >= 1000) {
+            iso = type / 1000;
+            type = type - iso * 1000;
+            if (iso > 3) {
+                return null;
+            }
+        }
+        if (type >= NUMBER_OF_TYPES) {
+            return null;
+        }
+        return CODES[(flags * 4 + iso) * NUMBER_OF_TYPES + type];
+    }
+
+    /**
+     * Get the Geometry type
+     * @return The Geometry type
+     */
+    GeometryType getGeometryType() {
+        return geometryType;
+    }
+
+    /**
+     * Get the Dimension
+     * @return The Dimension
+     */
+    Dimension getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Whether an SRID follows the type int
+     * @return Whether an SRID follows the type int
+     */
+    boolean hasSrid() {
+        return srid;
+    }
+
+}
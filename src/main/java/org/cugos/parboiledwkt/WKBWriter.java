@@ -1,7 +1,12 @@
 package org.cugos.parboiledwkt;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
 import java.util.List;
 import org.cugos.parboiledwkt.WKB.Endian;
@@ -25,6 +30,23 @@ public class WKBWriter {
      */
     private final Endian endian;
 
+    /**
+     * The largest ByteBuffer a thread keeps.  Bigger Geometries get their own, exactly sized ByteBuffer.
+     */
+    private static final int MAX_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The ByteBuffer that each thread encodes into, shared by all WKBWriters so that creating a WKBWriter
+     * for each write doesn't start from an empty ByteBuffer.  It only grows when a Geometry doesn't fit,
+     * up to MAX_BUFFER_SIZE.
+     */
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(4096);
+        }
+    };
+
     /**
      * Create a WKBWriter with Type WKB and Big Endian byte order
      */
@@ -57,41 +79,102 @@ public class WKBWriter {
      * @return An array of bytes
      */
     public byte[] write(Geometry g) {
-        if (g instanceof Point) {
-            return write((Point) g);
-        } else if (g instanceof LineString) {
-            return write((LineString) g);
-        } else if (g instanceof LinearRing) {
-            return write((LinearRing) g);
-        } else if (g instanceof Triangle) {
-            return write((Triangle) g);
-        } else if (g instanceof Polygon) {
-            return write((Polygon) g);
-        } else if (g instanceof MultiPoint) {
-            return write((MultiPoint) g);
-        } else if (g instanceof MultiLineString) {
-            return write((MultiLineString) g);
-        } else if (g instanceof MultiPolygon) {
-            return write((MultiPolygon) g);
-        } else if (g instanceof GeometryCollection) {
-            return write((GeometryCollection) g);
-        } else if (g instanceof CircularString) {
-            return write((CircularString) g);
-        } else if (g instanceof CurvePolygon) {
-            return write((CurvePolygon) g);
-        } else if (g instanceof CompoundCurve) {
-            return write((CompoundCurve) g);
-        } else if (g instanceof MultiCurve) {
-            return write((MultiCurve) g);
-        } else if (g instanceof PolyHedralSurface) {
-            return write((PolyHedralSurface) g);
-        } else if (g instanceof MultiSurface) {
-            return write((MultiSurface) g);
-        } else if (g instanceof Tin) {
-            return write((Tin) g);
-        } else {
-            throw new IllegalArgumentException("Unsupported Geometry! " + g.getClass().getName());
+        ByteBuffer buffer = encode(g);
+        if (buffer != BUFFERS.get() && buffer.limit() == buffer.capacity()) {
+            // A Geometry too big for this thread's ByteBuffer gets its own, exactly sized one
+            return buffer.array();
+        }
+        return Arrays.copyOf(buffer.array(), buffer.limit());
+    }
+
+    /**
+     * Calculate the number of bytes a Geometry is written with, for example to size a ByteBuffer
+     * @param g The Geometry
+     * @return The number of bytes
+     */
+    public int getNumberOfBytes(Geometry g) {
+        return calculateNumberOfBytes(g);
+    }
+
+    /**
+     * Write a Geometry into a ByteBuffer at its position, which is moved to the end of the Geometry, so a batch
+     * of Geometries can be written into one ByteBuffer.  The byte order of the ByteBuffer is not changed.
+     * @param g The Geometry
+     * @param buffer The ByteBuffer
+     * @return The number of bytes written
+     * @throws BufferOverflowException if the Geometry doesn't fit in the remaining bytes, in which case
+     * the position is not changed but the bytes after it may have been
+     */
+    public int write(Geometry g, ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        int position = buffer.position();
+        try {
+            putGeometry(buffer, g);
+        } catch (BufferOverflowException e) {
+            // Call Buffer.position(int) because ByteBuffer.position(int) doesn't exist on Java 8
+            ((Buffer) buffer).position(position);
+            throw e;
+        } finally {
+            buffer.order(order);
         }
+        return buffer.position() - position;
+    }
+
+    /**
+     * Write a Geometry to an OutputStream.  The Geometry is encoded into a ByteBuffer that is reused by the next
+     * write on the same thread, so no array is created for each Geometry.
+     * @param g The Geometry
+     * @param out The OutputStream, which is neither flushed nor closed
+     * @return The number of bytes written
+     * @throws IOException if the bytes can't be written
+     */
+    public int write(Geometry g, OutputStream out) throws IOException {
+        ByteBuffer buffer = encode(g);
+        out.write(buffer.array(), 0, buffer.limit());
+        return buffer.limit();
+    }
+
+    /**
+     * Write a Geometry to a WritableByteChannel.  The Geometry is encoded into a ByteBuffer that is reused by
+     * the next write on the same thread, so no array is created for each Geometry.
+     * @param g The Geometry
+     * @param channel The WritableByteChannel, which is not closed
+     * @return The number of bytes written
+     * @throws IOException if the bytes can't be written
+     */
+    public int write(Geometry g, WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = encode(g);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return buffer.limit();
+    }
+
+    /**
+     * Encode a Geometry into this thread's ByteBuffer in one pass.  Only when the Geometry doesn't fit is
+     * its size calculated, to grow the ByteBuffer once, or for Geometries bigger than MAX_BUFFER_SIZE to
+     * create an exactly sized ByteBuffer that isn't kept, before encoding it again.
+     * @param g The Geometry
+     * @return A ByteBuffer with the Geometry between position 0 and the limit
+     */
+    private ByteBuffer encode(Geometry g) {
+        ByteBuffer buffer = BUFFERS.get();
+        // Call Buffer.clear() and flip() because the ByteBuffer versions don't exist on Java 8
+        ((Buffer) buffer).clear();
+        try {
+            putGeometry(buffer, g);
+        } catch (BufferOverflowException e) {
+            int numberOfBytes = calculateNumberOfBytes(g);
+            if (numberOfBytes <= MAX_BUFFER_SIZE) {
+                buffer = ByteBuffer.allocate(Math.min(MAX_BUFFER_SIZE, Math.max(numberOfBytes, buffer.capacity() * 2)));
+                BUFFERS.set(buffer);
+            } else {
+                buffer = ByteBuffer.allocate(numberOfBytes);
+            }
+            putGeometry(buffer, g);
+        }
+        ((Buffer) buffer).flip();
+        return buffer;
     }
 
     /**
@@ -132,6 +215,9 @@ public class WKBWriter {
             return calculateNumberOfBytes((MultiSurface) g);
         } else if (g instanceof Tin) {
             return calculateNumberOfBytes((Tin) g);
+        } else if (g instanceof LazyWKBGeometry) {
+            LazyWKBGeometry lazy = (LazyWKBGeometry) g;
+            return lazy.isWrittenBy(wkbType, endian) ? lazy.getWKB().length : calculateNumberOfBytes(lazy.getGeometry());
         } else {
             throw new IllegalArgumentException("Unsupported Geometry! " + g.getClass().getName());
         }
@@ -175,6 +261,13 @@ public class WKBWriter {
             putMultiSurface(buffer, (MultiSurface) g);
         } else if (g instanceof Tin) {
             putTin(buffer, (Tin) g);
+        } else if (g instanceof LazyWKBGeometry) {
+            LazyWKBGeometry lazy = (LazyWKBGeometry) g;
+            if (lazy.isWrittenBy(wkbType, endian)) {
+                buffer.put(lazy.getWKB());
+            } else {
+                putGeometry(buffer, lazy.getGeometry());
+            }
         } else {
             throw new IllegalArgumentException("Unsupported Geometry! " + g.getClass().getName());
         }
@@ -211,15 +304,7 @@ public class WKBWriter {
      * @return A multiplier
      */
     private int getMultiplier(Dimension dimension) {
-        if (dimension == Dimension.Two) {
-            return 2;
-        } else if (dimension == Dimension.TwoMeasured || dimension == Dimension.Three) {
-            return 3;
-        } else if (dimension == Dimension.ThreeMeasured) {
-            return 4;
-        } else {
-            return 2;
-        }
+        return dimension == null ? 2 : dimension.getNumberOfValues();
     }
 
     /**
@@ -273,28 +358,46 @@ public class WKBWriter {
      * Write a Coordinate into the ByteBuffer
      * @param buffer The ByteBuffer
      * @param coord The Coordinates
+     * @param dimension The Dimension of the Geometry, which determines which values are written
      */
-    private void putCoordinate(ByteBuffer buffer, Coordinate coord) {
-        Dimension dimension = coord.getDimension();
+    private void putCoordinate(ByteBuffer buffer, Coordinate coord, Dimension dimension) {
         buffer.putDouble(coord.getX());
         buffer.putDouble(coord.getY());
-        if (dimension == Dimension.Three || dimension == Dimension.ThreeMeasured) {
+        if (dimension != null && dimension.hasZ()) {
             buffer.putDouble(coord.getZ());
         }
-        if (dimension == Dimension.TwoMeasured || dimension == Dimension.ThreeMeasured) {
+        if (dimension != null && dimension.hasM()) {
             buffer.putDouble(coord.getM());
         }
     }
 
     /**
-     * Write a List of Coordinates into the ByteBuffer
+     * Write the Coordinates of a CoordinateSequence into the ByteBuffer without creating Coordinates
      * @param buffer The ByteBuffer
-     * @param coords The List of Coordinates
-     */
-    private void putCoordinates(ByteBuffer buffer, List<Coordinate> coords) {
-        buffer.putInt(coords.size());
-        for(Coordinate coord : coords) {
-            putCoordinate(buffer, coord);
+     * @param coords The CoordinateSequence
+     * @param dimension The Dimension of the Geometry, which determines which values are written
+     */
+    private void putCoordinates(ByteBuffer buffer, CoordinateSequence coords, Dimension dimension) {
+        int size = coords.size();
+        buffer.putInt(size);
+        if (dimension == null || dimension == Dimension.Two) {
+            for (int i = 0; i < size; i++) {
+                buffer.putDouble(coords.getX(i));
+                buffer.putDouble(coords.getY(i));
+            }
+        } else {
+            boolean hasZ = dimension.hasZ();
+            boolean hasM = dimension.hasM();
+            for (int i = 0; i < size; i++) {
+                buffer.putDouble(coords.getX(i));
+                buffer.putDouble(coords.getY(i));
+                if (hasZ) {
+                    buffer.putDouble(coords.getZ(i));
+                }
+                if (hasM) {
+                    buffer.putDouble(coords.getM(i));
+                }
+            }
         }
     }
 
@@ -315,9 +418,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(Point point) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(point));
-        putPoint(buffer, point);
-        return buffer.array();
+        return write((Geometry) point);
     }
 
     /**
@@ -340,7 +441,7 @@ public class WKBWriter {
         putGeometryType(buffer, GeometryType.Point, point.getDimension(), point.getSrid());
         putSrid(buffer, point.getSrid());
         if (!point.isEmpty()) {
-            putCoordinate(buffer, point.getCoordinate());
+            putCoordinate(buffer, point.getCoordinate(), point.getDimension());
         }
     }
 
@@ -361,9 +462,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(LinearRing linearRing) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(linearRing));
-        putLineString(buffer, linearRing);
-        return buffer.array();
+        return write((Geometry) linearRing);
     }
 
     /**
@@ -385,9 +484,7 @@ public class WKBWriter {
         putByteOrder(buffer);
         putGeometryType(buffer, GeometryType.LineString, linearRing.getDimension(), linearRing.getSrid());
         putSrid(buffer, linearRing.getSrid());
-        if (!linearRing.isEmpty()) {
-            putCoordinates(buffer, linearRing.getCoordinates());
-        }
+        putCoordinates(buffer, linearRing.getCoordinateSequence(), linearRing.getDimension());
     }
 
     // LineString
@@ -407,9 +504,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(LineString lineString) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(lineString));
-        putLineString(buffer, lineString);
-        return buffer.array();
+        return write((Geometry) lineString);
     }
 
     /**
@@ -431,9 +526,7 @@ public class WKBWriter {
         putByteOrder(buffer);
         putGeometryType(buffer, GeometryType.LineString, lineString.getDimension(), lineString.getSrid());
         putSrid(buffer, lineString.getSrid());
-        if (!lineString.isEmpty()) {
-            putCoordinates(buffer, lineString.getCoordinates());
-        }
+        putCoordinates(buffer, lineString.getCoordinateSequence(), lineString.getDimension());
     }
 
     // Polygon
@@ -453,9 +546,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(Polygon polygon) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(polygon));
-        putPolygon(buffer, polygon);
-        return buffer.array();
+        return write((Geometry) polygon);
     }
 
     /**
@@ -491,9 +582,9 @@ public class WKBWriter {
         buffer.putInt(numberOfRings);
         // Rings
         if (!polygon.isEmpty()) {
-            putCoordinates(buffer, polygon.getOuterLinearRing().getCoordinates());
+            putCoordinates(buffer, polygon.getOuterLinearRing().getCoordinateSequence(), polygon.getDimension());
             for(LinearRing ring : polygon.getInnerLinearRings()) {
-                putCoordinates(buffer, ring.getCoordinates());
+                putCoordinates(buffer, ring.getCoordinateSequence(), polygon.getDimension());
             }
         }
     }
@@ -515,9 +606,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(MultiPoint multiPoint) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(multiPoint));
-        putMultiPoint(buffer, multiPoint);
-        return buffer.array();
+        return write((Geometry) multiPoint);
     }
 
     /**
@@ -526,11 +615,14 @@ public class WKBWriter {
      * @return The number of bytes necessary for the MultiPoint
      */
     private int calculateNumberOfBytes(MultiPoint multiPoint) {
-        return 4 +
-            // Number of coordinates
-            calculateNumberOfBytes(multiPoint.getSrid()) +
-            // Points
-            ((calculateNumberOfBytes(multiPoint.getSrid()) + calculateNumberOfBytes(1, multiPoint.getDimension())) * multiPoint.getPoints().size());
+        // Number of points
+        int numberOfBytes = 4 + calculateNumberOfBytes(multiPoint.getSrid());
+        if (!multiPoint.isEmpty()) {
+            for (Point pt : multiPoint.getPoints()) {
+                numberOfBytes += calculateNumberOfBytes(pt);
+            }
+        }
+        return numberOfBytes;
     }
 
     /**
@@ -567,9 +659,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(MultiLineString multiLineString) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(multiLineString));
-        putMultiLineString(buffer, multiLineString);
-        return buffer.array();
+        return write((Geometry) multiLineString);
     }
 
     /**
@@ -619,9 +709,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(MultiPolygon multiPolygon) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(multiPolygon));
-        putMultiPolygon(buffer, multiPolygon);
-        return buffer.array();
+        return write((Geometry) multiPolygon);
     }
 
     /**
@@ -671,9 +759,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(GeometryCollection geometryCollection) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(geometryCollection));
-        putGeometryCollection(buffer, geometryCollection);
-        return buffer.array();
+        return write((Geometry) geometryCollection);
     }
 
     /**
@@ -723,9 +809,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(CircularString circularString) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(circularString));
-        putCircularString(buffer, circularString);
-        return buffer.array();
+        return write((Geometry) circularString);
     }
 
     /**
@@ -747,9 +831,7 @@ public class WKBWriter {
         putByteOrder(buffer);
         putGeometryType(buffer, GeometryType.CircularString, circularString.getDimension(), circularString.getSrid());
         putSrid(buffer, circularString.getSrid());
-        if (!circularString.isEmpty()) {
-            putCoordinates(buffer, circularString.getCoordinates());
-        }
+        putCoordinates(buffer, circularString.getCoordinateSequence(), circularString.getDimension());
     }
 
     // Curve
@@ -805,9 +887,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(CompoundCurve compoundCurve) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(compoundCurve));
-        putCompoundCurve(buffer, compoundCurve);
-        return buffer.array();
+        return write((Geometry) compoundCurve);
     }
 
     /**
@@ -857,9 +937,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(CurvePolygon curvePolygon) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(curvePolygon));
-        putCurvePolygon(buffer, curvePolygon);
-        return buffer.array();
+        return write((Geometry) curvePolygon);
     }
 
     /**
@@ -869,9 +947,11 @@ public class WKBWriter {
      */
     private int calculateNumberOfBytes(CurvePolygon curvePolygon) {
         int numberOfBytes = 4 + calculateNumberOfBytes(curvePolygon.getSrid());
-        numberOfBytes += calculateNumberOfBytes(curvePolygon.getOuterCurve());
-        for (Curve curve : curvePolygon.getInnerCurves()) {
-            numberOfBytes += calculateNumberOfBytes(curve);
+        if (!curvePolygon.isEmpty()) {
+            numberOfBytes += calculateNumberOfBytes(curvePolygon.getOuterCurve());
+            for (Curve curve : curvePolygon.getInnerCurves()) {
+                numberOfBytes += calculateNumberOfBytes(curve);
+            }
         }
         return  numberOfBytes;
     }
@@ -915,9 +995,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(MultiCurve multiCurve) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(multiCurve));
-        putMultiCurve(buffer, multiCurve);
-        return buffer.array();
+        return write((Geometry) multiCurve);
     }
 
     /**
@@ -1011,9 +1089,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(MultiSurface multiSurface) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(multiSurface));
-        putMultiSurface(buffer, multiSurface);
-        return buffer.array();
+        return write((Geometry) multiSurface);
     }
 
     /**
@@ -1063,9 +1139,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(Tin tin) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(tin));
-        putTin(buffer, tin);
-        return buffer.array();
+        return write((Geometry) tin);
     }
 
     /**
@@ -1115,9 +1189,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(Triangle triangle) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(triangle));
-        putTriangle(buffer, triangle);
-        return buffer.array();
+        return write((Geometry) triangle);
     }
 
     /**
@@ -1153,9 +1225,9 @@ public class WKBWriter {
         buffer.putInt(numberOfRings);
         // Rings
         if (!triangle.isEmpty()) {
-            putCoordinates(buffer, triangle.getOuterLinearRing().getCoordinates());
+            putCoordinates(buffer, triangle.getOuterLinearRing().getCoordinateSequence(), triangle.getDimension());
             for(LinearRing ring : triangle.getInnerLinearRings()) {
-                putCoordinates(buffer, ring.getCoordinates());
+                putCoordinates(buffer, ring.getCoordinateSequence(), triangle.getDimension());
             }
         }
     }
@@ -1177,9 +1249,7 @@ public class WKBWriter {
      * @return A byte array
      */
     public byte[] write(PolyHedralSurface polyHedralSurface) {
-        ByteBuffer buffer = ByteBuffer.allocate(calculateNumberOfBytes(polyHedralSurface));
-        putPolyHedralSurface(buffer, polyHedralSurface);
-        return buffer.array();
+        return write((Geometry) polyHedralSurface);
     }
 
     /**
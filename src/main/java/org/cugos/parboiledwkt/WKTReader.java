@@ -1,35 +1,341 @@
 package org.cugos.parboiledwkt;
 
 import org.parboiled.Parboiled;
+import org.parboiled.errors.ErrorUtils;
+import org.parboiled.parserunners.BasicParseRunner;
 import org.parboiled.parserunners.ReportingParseRunner;
 import org.parboiled.support.ParsingResult;
 
+import java.nio.ByteBuffer;
+
 /**
- * Read a WKT String and return a Geometry
+ * Read a WKT String and return a Geometry.
+ * A WKTReader is thread safe, each thread parses with its own parser.
  * @author Jared Erickson
  */
 public class WKTReader {
 
     /**
-     * The parboiled WKTParser
+     * The engine used to parse WKT
      */
-    private final WKTParser parser;
+    public static enum Engine {
+        /**
+         * The parboiled WKTParser, which is the reference implementation
+         */
+        Parboiled,
+        /**
+         * The hand written, single pass FastWKTParser
+         */
+        Fast
+    }
 
     /**
-     * Create a new WKTReader
+     * The Engine
+     */
+    private final Engine engine;
+
+    /**
+     * Whether to report why WKT could not be parsed
+     */
+    private final boolean diagnostics;
+
+    /**
+     * The CoordinateSequenceFactory or null for the default CoordinateSequenceFactory
+     */
+    private final CoordinateSequenceFactory factory;
+
+    /**
+     * The parboiled BasicWKTParser for each thread.  Parsers keep state while parsing
+     * so they can't be shared, but they are too expensive to create for every read.
+     * The Fast Engine only uses them when reporting diagnostics.
+     */
+    private final ThreadLocal<BasicWKTParser> parsers = new ThreadLocal<BasicWKTParser>() {
+        @Override
+        protected BasicWKTParser initialValue() {
+            return Parboiled.createParser(BasicWKTParser.class);
+        }
+    };
+
+    /**
+     * Create a new WKTReader that uses the Parboiled Engine
      */
     public WKTReader() {
-        this.parser = Parboiled.createParser(WKTParser.class);
+        this(Engine.Parboiled);
+    }
+
+    /**
+     * Create a new WKTReader without diagnostics
+     * @param engine The Engine used to parse WKT
+     */
+    public WKTReader(Engine engine) {
+        this(engine, false);
+    }
+
+    /**
+     * Create a new WKTReader
+     * @param engine The Engine used to parse WKT
+     * @param diagnostics Whether to throw an IllegalArgumentException describing the parse errors
+     * when WKT can not be parsed instead of returning null
+     */
+    public WKTReader(Engine engine, boolean diagnostics) {
+        this(engine, diagnostics, null);
+    }
+
+    /**
+     * Create a new WKTReader
+     * @param engine The Engine used to parse WKT
+     * @param diagnostics Whether to throw an IllegalArgumentException describing the parse errors
+     * when WKT can not be parsed instead of returning null
+     * @param factory The CoordinateSequenceFactory that stores the coordinates or null for the default
+     * CoordinateSequenceFactory.  Only the Fast Engine can use another CoordinateSequenceFactory, the Parboiled
+     * Engine always uses the default CoordinateSequenceFactory.
+     * @throws IllegalArgumentException if a CoordinateSequenceFactory is given for the Parboiled Engine
+     */
+    public WKTReader(Engine engine, boolean diagnostics, CoordinateSequenceFactory factory) {
+        if (engine == Engine.Parboiled && factory != null) {
+            throw new IllegalArgumentException("The Parboiled Engine can't use a CoordinateSequenceFactory, " +
+                    "use the Fast Engine or CoordinateSequence.setDefaultFactory");
+        }
+        this.engine = engine;
+        this.diagnostics = diagnostics;
+        this.factory = factory;
+    }
+
+    /**
+     * Get the Engine
+     * @return The Engine
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Whether this WKTReader reports diagnostics
+     * @return Whether this WKTReader reports diagnostics
+     */
+    public boolean isDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Get the CoordinateSequenceFactory
+     * @return The CoordinateSequenceFactory or null for the default CoordinateSequenceFactory
+     */
+    public CoordinateSequenceFactory getFactory() {
+        return factory;
     }
 
     /**
      * Read the WKT and return a Geometry
      * @param wkt The WKT
-     * @return A Geometry
+     * @return A Geometry or null if the WKT could not be parsed and diagnostics are off
+     * @throws IllegalArgumentException if the WKT could not be parsed and diagnostics are on
      */
     public Geometry read(String wkt) {
-        ParsingResult<Geometry> result = new ReportingParseRunner(parser.WKT()).run(wkt);
-        return result.resultValue;
+        return parse(wkt);
+    }
+
+    /**
+     * Read the WKT and return a Geometry only if its Envelope intersects the query Envelope.
+     * The Fast Engine parses the WKT once, finding the Envelope while it collects the Coordinates, and only builds
+     * the Geometry if it intersects.  The Parboiled Engine finds the extent with the Fast Engine's parser first,
+     * without creating any objects, and only parses the WKT that intersects.
+     * @param wkt The WKT
+     * @param envelope The query Envelope
+     * @return A Geometry, or null if its Envelope doesn't intersect the query Envelope or
+     * if the WKT could not be parsed and diagnostics are off
+     * @throws IllegalArgumentException if the WKT could not be parsed and diagnostics are on
+     */
+    public Geometry read(String wkt, Envelope envelope) {
+        if (engine == Engine.Fast) {
+            EnvelopeFilter filter = new EnvelopeFilter(new GeometryBuilder(true, factory), envelope);
+            if (!new FastWKTParser(wkt).parse(filter)) {
+                if (diagnostics) {
+                    throw new IllegalArgumentException(getErrors(wkt));
+                }
+                return null;
+            }
+            return filter.getGeometry();
+        }
+        EnvelopeHandler handler = new EnvelopeHandler();
+        if (new FastWKTParser(wkt).parse(handler) && !handler.getEnvelope().intersects(envelope)) {
+            return null;
+        }
+        return parse(wkt);
+    }
+
+    /**
+     * Read ASCII (or UTF-8) encoded WKT and return a Geometry without decoding it into a String first
+     * @param wkt The WKT bytes
+     * @return A Geometry or null if the WKT could not be parsed and diagnostics are off
+     * @throws IllegalArgumentException if the WKT could not be parsed and diagnostics are on
+     */
+    public Geometry read(byte[] wkt) {
+        return read(wkt, 0, wkt.length);
+    }
+
+    /**
+     * Read ASCII (or UTF-8) encoded WKT and return a Geometry without decoding it into a String first
+     * @param wkt The byte array
+     * @param offset The offset of the WKT in the byte array
+     * @param length The number of WKT bytes
+     * @return A Geometry or null if the WKT could not be parsed and diagnostics are off
+     * @throws IllegalArgumentException if the WKT could not be parsed and diagnostics are on
+     */
+    public Geometry read(byte[] wkt, int offset, int length) {
+        return parse(new AsciiCharSequence(wkt, offset, length));
+    }
+
+    /**
+     * Read ASCII (or UTF-8) encoded WKT and return a Geometry without decoding it into a String first
+     * @param wkt The ByteBuffer with the WKT between its position and limit.  The position is not changed.
+     * @return A Geometry or null if the WKT could not be parsed and diagnostics are off
+     * @throws IllegalArgumentException if the WKT could not be parsed and diagnostics are on
+     */
+    public Geometry read(ByteBuffer wkt) {
+        return parse(new AsciiCharSequence(wkt));
+    }
+
+    /**
+     * Read the WKT and send each part of the Geometry to the GeometryHandler instead of building a Geometry.
+     * This always uses the hand written parser of the Fast Engine, whatever Engine this WKTReader was created with.
+     * To build the same Geometry as read(String), use a GeometryBuilder created with new GeometryBuilder(),
+     * where the parts of a collection share its Dimension and SRID.
+     * @param wkt The WKT
+     * @param handler The GeometryHandler
+     * @return Whether the WKT could be parsed.  If not, the GeometryHandler may have received some events.
+     * @throws IllegalArgumentException if the WKT could not be parsed and diagnostics are on
+     */
+    public boolean read(CharSequence wkt, GeometryHandler handler) {
+        boolean parsed = new FastWKTParser(wkt).parse(handler);
+        if (!parsed && diagnostics) {
+            throw new IllegalArgumentException(getErrors(wkt.toString()));
+        }
+        return parsed;
+    }
+
+    /**
+     * Read only the start of the WKT to find the Geometry type, Dimension, and SRID without parsing coordinates.
+     * The Dimension is the one declared by the Z, M, or ZM tag, so POINT (1 2 3) is Dimension.Two, and
+     * LINEARRING is a LineString just like in the Geometry that read returns.
+     * @param wkt The WKT
+     * @return The GeometryHeader or null if the WKT doesn't start with a Geometry
+     */
+    public GeometryHeader probe(CharSequence wkt) {
+        return new FastWKTParser(wkt).probe();
+    }
+
+    /**
+     * Parse the WKT with the Engine
+     * @param wkt The WKT
+     * @return A Geometry or null if the WKT could not be parsed and diagnostics are off
+     * @throws IllegalArgumentException if the WKT could not be parsed and diagnostics are on
+     */
+    private Geometry parse(CharSequence wkt) {
+        Geometry geometry;
+        if (engine == Engine.Fast) {
+            geometry = new FastWKTParser(wkt).parse(factory);
+        } else {
+            BasicParseRunner<Geometry> runner = new BasicParseRunner<Geometry>(parsers.get().WKT());
+            ParsingResult<Geometry> result = wkt instanceof AsciiCharSequence
+                    ? runner.run(((AsciiCharSequence) wkt).toCharArray())
+                    : runner.run(wkt.toString());
+            geometry = result.resultValue;
+        }
+        if (geometry == null && diagnostics) {
+            throw new IllegalArgumentException(getErrors(wkt.toString()));
+        }
+        return geometry;
+    }
+
+    /**
+     * Parse the WKT again with the ReportingParseRunner to find out why it could not be parsed
+     * @param wkt The WKT
+     * @return The error message
+     */
+    private String getErrors(String wkt) {
+        ParsingResult<Geometry> result = new ReportingParseRunner<Geometry>(parsers.get().WKT()).run(wkt);
+        return "Unable to parse WKT '" + wkt + "'" +
+                (result.hasErrors() ? ": " + ErrorUtils.printParseErrors(result) : "");
+    }
+
+    /**
+     * A GeometryHandler that finds the Envelope of a Geometry while a GeometryBuilder collects its Coordinates,
+     * and only lets the GeometryBuilder build the Geometry if its Envelope intersects the query Envelope
+     */
+    private static final class EnvelopeFilter implements GeometryHandler {
+
+        /**
+         * The EnvelopeHandler that finds the Envelope
+         */
+        private final EnvelopeHandler envelopeHandler = new EnvelopeHandler();
+
+        /**
+         * The GeometryBuilder
+         */
+        private final GeometryBuilder builder;
+
+        /**
+         * The query Envelope
+         */
+        private final Envelope envelope;
+
+        /**
+         * The number of Geometries that have been started but not ended
+         */
+        private int depth;
+
+        /**
+         * Create a new EnvelopeFilter
+         * @param builder The GeometryBuilder
+         * @param envelope The query Envelope
+         */
+        EnvelopeFilter(GeometryBuilder builder, Envelope envelope) {
+            this.builder = builder;
+            this.envelope = envelope;
+        }
+
+        /**
+         * Get the Geometry
+         * @return The Geometry or null if its Envelope doesn't intersect the query Envelope
+         */
+        Geometry getGeometry() {
+            return builder.getGeometry();
+        }
+
+        @Override
+        public void startGeometry(WKB.GeometryType geometryType, Dimension dimension, String srid) {
+            depth++;
+            envelopeHandler.startGeometry(geometryType, dimension, srid);
+            builder.startGeometry(geometryType, dimension, srid);
+        }
+
+        @Override
+        public void startRing() {
+            envelopeHandler.startRing();
+            builder.startRing();
+        }
+
+        @Override
+        public void coordinate(double x, double y, double z, double m) {
+            envelopeHandler.coordinate(x, y, z, m);
+            builder.coordinate(x, y, z, m);
+        }
+
+        @Override
+        public void endRing() {
+            envelopeHandler.endRing();
+            builder.endRing();
+        }
+
+        @Override
+        public void endGeometry(Dimension dimension) {
+            envelopeHandler.endGeometry(dimension);
+            // The GeometryBuilder only creates Geometries when the outermost one ends
+            if (--depth > 0 || envelopeHandler.getEnvelope().intersects(envelope)) {
+                builder.endGeometry(dimension);
+            }
+        }
     }
 
 }
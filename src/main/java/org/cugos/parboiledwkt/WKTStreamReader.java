@@ -0,0 +1,218 @@
+package org.cugos.parboiledwkt;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read many WKT records from a Reader or InputStream one Geometry at a time.
+ * Records are separated by new lines or semicolons (the semicolon after an EWKT SRID=4326 prefix
+ * is part of the record).  Blank records are skipped and only one record is kept in memory at a time.
+ * @author Jared Erickson
+ */
+public class WKTStreamReader implements Iterator<Geometry>, Closeable {
+
+    /**
+     * The Reader with the WKT records
+     */
+    private final Reader input;
+
+    /**
+     * The WKTReader that parses each record
+     */
+    private final WKTReader reader;
+
+    /**
+     * The buffer of characters read from the input
+     */
+    private final char[] buffer = new char[8192];
+
+    /**
+     * The position of the next character in the buffer
+     */
+    private int position;
+
+    /**
+     * The number of characters in the buffer
+     */
+    private int limit;
+
+    /**
+     * The current record
+     */
+    private final StringBuilder record = new StringBuilder();
+
+    /**
+     * The next WKT record or null if it hasn't been read yet
+     */
+    private String next;
+
+    /**
+     * Whether the end of the input has been reached
+     */
+    private boolean done;
+
+    /**
+     * Create a new WKTStreamReader
+     * @param input The Reader with the WKT records
+     */
+    public WKTStreamReader(Reader input) {
+        this(input, new WKTReader());
+    }
+
+    /**
+     * Create a new WKTStreamReader
+     * @param input The Reader with the WKT records
+     * @param reader The WKTReader that parses each record
+     */
+    public WKTStreamReader(Reader input, WKTReader reader) {
+        this.input = input;
+        this.reader = reader;
+    }
+
+    /**
+     * Create a new WKTStreamReader for a US-ASCII or UTF-8 InputStream
+     * @param input The InputStream with the WKT records
+     */
+    public WKTStreamReader(InputStream input) {
+        this(input, new WKTReader());
+    }
+
+    /**
+     * Create a new WKTStreamReader for a US-ASCII or UTF-8 InputStream
+     * @param input The InputStream with the WKT records
+     * @param reader The WKTReader that parses each record
+     */
+    public WKTStreamReader(InputStream input, WKTReader reader) {
+        this(new InputStreamReader(input, Charset.forName("UTF-8")), reader);
+    }
+
+    /**
+     * Whether there is another WKT record
+     * @return Whether there is another WKT record
+     * @throws UncheckedIOException if the input can't be read
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                next = readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    /**
+     * Read the next WKT record
+     * @return The Geometry, or whatever the WKTReader returns for WKT it can't parse
+     * @throws NoSuchElementException if there are no more records
+     * @throws UncheckedIOException if the input can't be read
+     */
+    @Override
+    public Geometry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String wkt = next;
+        next = null;
+        return reader.read(wkt);
+    }
+
+    /**
+     * Records can't be removed
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Close the input
+     * @throws IOException if the input can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        done = true;
+        next = null;
+        input.close();
+    }
+
+    /**
+     * Read the next record that isn't blank
+     * @return The trimmed record or null at the end of the input
+     * @throws IOException if the input can't be read
+     */
+    private String readRecord() throws IOException {
+        record.setLength(0);
+        while (true) {
+            if (position == limit) {
+                limit = input.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    done = true;
+                    return trimRecord();
+                }
+            }
+            char c = buffer[position++];
+            if (c == '\n' || c == '\r' || (c == ';' && !isSrid())) {
+                String wkt = trimRecord();
+                if (wkt != null) {
+                    return wkt;
+                }
+            } else {
+                record.append(c);
+            }
+        }
+    }
+
+    /**
+     * Whether the current record ends with an SRID=1234 prefix, in which case a semicolon belongs to the record
+     * @return Whether the current record ends with an SRID prefix
+     */
+    private boolean isSrid() {
+        int i = record.length() - 1;
+        while (i >= 0 && Character.isDigit(record.charAt(i))) {
+            i--;
+        }
+        String prefix = "SRID=";
+        int start = i - prefix.length() + 1;
+        if (i == record.length() - 1 || start < 0) {
+            return false;
+        }
+        for (int j = 0; j < prefix.length(); j++) {
+            if (record.charAt(start + j) != prefix.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trim whitespace from the current record and clear it
+     * @return The trimmed record or null if it was blank
+     */
+    private String trimRecord() {
+        int start = 0;
+        int end = record.length();
+        while (start < end && Character.isWhitespace(record.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(record.charAt(end - 1))) {
+            end--;
+        }
+        String wkt = start < end ? record.substring(start, end) : null;
+        record.setLength(0);
+        return wkt;
+    }
+
+}
@@ -78,6 +78,8 @@ public class WKTWriter {
             return write((CompoundCurve) g, includeSrid, includeDimension);
         } else if (g instanceof Tin) {
             return write((Tin) g, includeSrid, includeDimension);
+        } else if (g instanceof LazyWKBGeometry) {
+            return write(((LazyWKBGeometry) g).getGeometry(), includeSrid, includeDimension);
         }
         else {
             throw new IllegalArgumentException("Unknown Geometry! " + g.getClass().getName());
@@ -113,7 +115,7 @@ public class WKTWriter {
     }
 
     public String write(LineString lineString, boolean includeSrid, boolean includeDimension) {
-        List coordinates = lineString.getCoordinates();
+        CoordinateSequence coordinates = lineString.getCoordinateSequence();
         StringBuilder builder = new StringBuilder();
         if (includeSrid) {
             addSrid(lineString, builder);
@@ -137,7 +139,7 @@ public class WKTWriter {
     }
 
     public String write(LinearRing lineString, boolean includeSrid, boolean includeDimension) {
-        List coordinates = lineString.getCoordinates();
+        CoordinateSequence coordinates = lineString.getCoordinateSequence();
         StringBuilder builder = new StringBuilder();
         if (includeSrid) {
             addSrid(lineString, builder);
@@ -194,7 +196,7 @@ public class WKTWriter {
             addSrid(p, builder);
         }
         builder.append("POLYGON");
-        if (p.getOuterLinearRing() == null || p.getOuterLinearRing().getCoordinates().isEmpty()) {
+        if (p.getOuterLinearRing() == null || p.getOuterLinearRing().getCoordinateSequence().isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
@@ -202,12 +204,12 @@ public class WKTWriter {
             }
             builder.append(" ((");
             // Outer ring
-            addCoordinates(p.getOuterLinearRing().getCoordinates(), builder);
+            addCoordinates(p.getOuterLinearRing().getCoordinateSequence(), builder);
             builder.append(")");
             // Inner rings
             for (LinearRing ring : p.getInnerLinearRings()) {
                 builder.append(", (");
-                addCoordinates(ring.getCoordinates(), builder);
+                addCoordinates(ring.getCoordinateSequence(), builder);
                 builder.append(")");
             }
             builder.append(")");
@@ -241,12 +243,12 @@ public class WKTWriter {
                 }
                 builder.append("((");
                 // Outer ring
-                addCoordinates(polygon.getOuterLinearRing().getCoordinates(), builder);
+                addCoordinates(polygon.getOuterLinearRing().getCoordinateSequence(), builder);
                 builder.append(")");
                 // Inner rings
                 for (LinearRing ring : polygon.getInnerLinearRings()) {
                     builder.append(", (");
-                    addCoordinates(ring.getCoordinates(), builder);
+                    addCoordinates(ring.getCoordinateSequence(), builder);
                     builder.append(")");
                 }
                 builder.append(")");
@@ -281,7 +283,7 @@ public class WKTWriter {
                     firstLine = false;
                 }
                 builder.append("(");
-                addCoordinates(line.getCoordinates(), builder);
+                addCoordinates(line.getCoordinateSequence(), builder);
                 builder.append(")");
             }
             builder.append(")");
@@ -330,7 +332,7 @@ public class WKTWriter {
             addSrid(t, builder);
         }
         builder.append("TRIANGLE");
-        if (t.getOuterLinearRing().getCoordinates().isEmpty()) {
+        if (t.getOuterLinearRing().getCoordinateSequence().isEmpty()) {
             builder.append(" EMPTY");
         } else {
             if (includeDimension) {
@@ -338,12 +340,12 @@ public class WKTWriter {
             }
             builder.append(" ((");
             // Outer ring
-            addCoordinates(t.getOuterLinearRing().getCoordinates(), builder);
+            addCoordinates(t.getOuterLinearRing().getCoordinateSequence(), builder);
             builder.append(")");
             // Inner rings
             for (LinearRing ring : t.getInnerLinearRings()) {
                 builder.append(", (");
-                addCoordinates(ring.getCoordinates(), builder);
+                addCoordinates(ring.getCoordinateSequence(), builder);
                 builder.append(")");
             }
             builder.append(")");
@@ -356,7 +358,7 @@ public class WKTWriter {
     }
 
     public String write(CircularString circularString, boolean includeSrid, boolean includeDimension) {
-        List coordinates = circularString.getCoordinates();
+        CoordinateSequence coordinates = circularString.getCoordinateSequence();
         StringBuilder builder = new StringBuilder();
         if (includeSrid) {
             addSrid(circularString, builder);
@@ -401,12 +403,12 @@ public class WKTWriter {
                 }
                 builder.append("((");
                 // Outer ring
-                addCoordinates(t.getOuterLinearRing().getCoordinates(), builder);
+                addCoordinates(t.getOuterLinearRing().getCoordinateSequence(), builder);
                 builder.append(")");
                 // Inner rings
                 for (LinearRing ring : t.getInnerLinearRings()) {
                     builder.append(", (");
-                    addCoordinates(ring.getCoordinates(), builder);
+                    addCoordinates(ring.getCoordinateSequence(), builder);
                     builder.append(")");
                 }
                 builder.append(")");
@@ -442,7 +444,7 @@ public class WKTWriter {
                 }
                 if (curve instanceof LineString) {
                     builder.append("(");
-                    addCoordinates(((LineString) curve).getCoordinates(), builder);
+                    addCoordinates(((LineString) curve).getCoordinateSequence(), builder);
                     builder.append(")");
                 } else if (curve instanceof CircularString) {
                     builder.append(write((CircularString) curve, false, false));
@@ -475,7 +477,7 @@ public class WKTWriter {
             if (outerCurve instanceof LineString) {
                 LineString line = (LineString) outerCurve;
                 builder.append("(");
-                addCoordinates(line.getCoordinates(), builder);
+                addCoordinates(line.getCoordinateSequence(), builder);
                 builder.append(")");
             } else if (outerCurve instanceof CircularString) {
                 builder.append(write((CircularString) outerCurve, false, false));
@@ -488,7 +490,7 @@ public class WKTWriter {
                 if (curve instanceof LineString) {
                     LineString line = (LineString) curve;
                     builder.append("(");
-                    addCoordinates(line.getCoordinates(), builder);
+                    addCoordinates(line.getCoordinateSequence(), builder);
                     builder.append(")");
                 } else if (curve instanceof CircularString) {
                     builder.append(write((CircularString) curve, false, false));
@@ -528,7 +530,7 @@ public class WKTWriter {
                 if (c instanceof LineString) {
                     LineString line = (LineString) c;
                     builder.append("(");
-                    addCoordinates(line.getCoordinates(), builder);
+                    addCoordinates(line.getCoordinateSequence(), builder);
                     builder.append(")");
                 } else if (c instanceof CircularString) {
                     builder.append(write((CircularString) c, false, false));
@@ -567,12 +569,12 @@ public class WKTWriter {
                 }
                 builder.append("((");
                 // Outer ring
-                addCoordinates(polygon.getOuterLinearRing().getCoordinates(), builder);
+                addCoordinates(polygon.getOuterLinearRing().getCoordinateSequence(), builder);
                 builder.append(")");
                 // Inner rings
                 for (LinearRing ring : polygon.getInnerLinearRings()) {
                     builder.append(", (");
-                    addCoordinates(ring.getCoordinates(), builder);
+                    addCoordinates(ring.getCoordinateSequence(), builder);
                     builder.append(")");
                 }
                 builder.append(")");
@@ -639,6 +641,39 @@ public class WKTWriter {
         }
     }
 
+    /**
+     * Add the Coordinates of a CoordinateSequence to the StringBuilder without creating Coordinates
+     * @param coordinates The CoordinateSequence
+     * @param builder The StringBuilder
+     */
+    protected void addCoordinates(CoordinateSequence coordinates, StringBuilder builder) {
+        // Only the values the CoordinateSequence has room for can be present,
+        // but a Coordinate may still leave them empty
+        Dimension dimension = coordinates.getDimension();
+        boolean hasZ = dimension.hasZ();
+        boolean hasM = dimension.hasM();
+        for (int i = 0; i < coordinates.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(coordinates.getX(i));
+            builder.append(" ");
+            builder.append(coordinates.getY(i));
+            if (hasZ) {
+                double z = coordinates.getZ(i);
+                if (!Double.isNaN(z)) {
+                    builder.append(" ").append(z);
+                }
+            }
+            if (hasM) {
+                double m = coordinates.getM(i);
+                if (!Double.isNaN(m)) {
+                    builder.append(" ").append(m);
+                }
+            }
+        }
+    }
+
     /**
      * Add a Coordinate to the StringBuilder
      * @param coordinate The Coordinate
@@ -648,12 +683,11 @@ public class WKTWriter {
         builder.append(coordinate.getX());
         builder.append(" ");
         builder.append(coordinate.getY());
-        if (coordinate.getDimension() == Dimension.TwoMeasured) {
-            builder.append(" ").append(coordinate.getM());
-        } else if (coordinate.getDimension() == Dimension.Three) {
-            builder.append(" ").append(coordinate.getZ());
-        } else if (coordinate.getDimension() == Dimension.ThreeMeasured) {
+        Dimension dimension = coordinate.getDimension();
+        if (dimension.hasZ()) {
             builder.append(" ").append(coordinate.getZ());
+        }
+        if (dimension.hasM()) {
             builder.append(" ").append(coordinate.getM());
         }
     }
@@ -692,12 +726,12 @@ public class WKTWriter {
     protected void addPolygonText(Polygon polygon, StringBuilder builder) {
         builder.append("((");
         // Outer ring
-        addCoordinates(polygon.getOuterLinearRing().getCoordinates(), builder);
+        addCoordinates(polygon.getOuterLinearRing().getCoordinateSequence(), builder);
         builder.append(")");
         // Inner rings
         for (LinearRing ring : polygon.getInnerLinearRings()) {
             builder.append(", (");
-            addCoordinates(ring.getCoordinates(), builder);
+            addCoordinates(ring.getCoordinateSequence(), builder);
             builder.append(")");
         }
         builder.append(")");
@@ -190,4 +190,17 @@ public class CompoundCurveTest {
         // WKT
         assertEquals("COMPOUNDCURVE ZM (CIRCULARSTRING (1.0 0.0 1.0 5.0, 0.0 1.0 2.0 4.0, -1.0 0.0 3.0 2.0), (-1.0 0.0 3.0 2.0, 2.0 0.0 4.0 1.0))", cc.toString());
     }
+
+    @Test
+    public void forEachCoordinate() {
+        final StringBuilder builder = new StringBuilder();
+        new WKTReader().read("COMPOUNDCURVE(CIRCULARSTRING(1 0, 0 1, -1 0), (-1 0, 2 0))").forEachCoordinate(new CoordinateConsumer() {
+            @Override
+            public void coordinate(double x, double y, double z, double m) {
+                builder.append((int) x).append(" ").append((int) y).append(",");
+            }
+        });
+        assertEquals("1 0,0 1,-1 0,-1 0,2 0,", builder.toString());
+    }
+
 }
@@ -0,0 +1,134 @@
+package org.cugos.parboiledwkt;
+
+import org.junit.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * The CoordinateArena Unit Test
+ */
+public class CoordinateArenaTest {
+
+    @Test
+    public void create() {
+        CoordinateArena arena = new CoordinateArena(64);
+        CoordinateSequence seq = arena.create(new double[]{1, 2, 3, 4, 5, 6}, Dimension.Three);
+        assertEquals(Dimension.Three, seq.getDimension());
+        assertEquals(2, seq.size());
+        assertEquals(Coordinate.create3D(1, 2, 3), seq.getCoordinate(0));
+        assertEquals(Coordinate.create3D(4, 5, 6), seq.getCoordinate(1));
+        assertTrue(Double.isNaN(seq.getM(1)));
+        CoordinateSequence seq2 = arena.create(new double[]{7, 8, 9, 10}, Dimension.Two);
+        assertEquals(Coordinate.create2D(9, 10), seq2.getCoordinate(1));
+        assertEquals(80, arena.getSize());
+        assertEquals(128, arena.getCapacity());
+        // Larger than a chunk
+        CoordinateSequence seq3 = arena.create(new double[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, Dimension.Two);
+        assertEquals(5, seq3.size());
+        assertEquals(Coordinate.create2D(9, 10), seq3.getCoordinate(4));
+        assertEquals(208, arena.getCapacity());
+        assertEquals(Coordinate.create3D(4, 5, 6), seq.getCoordinate(1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBounds() {
+        CoordinateArena arena = new CoordinateArena();
+        arena.create(new double[]{1, 2}, Dimension.Two).getX(1);
+    }
+
+    @Test
+    public void read() {
+        CoordinateArena arena = new CoordinateArena();
+        String wkt = "MULTILINESTRING ZM ((1 2 3 4, 5 6 7 8), (9 10 11 12, 13 14 15 16))";
+        byte[] wkb = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little).write(new WKTReader().read(wkt));
+        Geometry geometry = new WKBReader(arena).read(wkb);
+        assertEquals(wkt.replace(".0", ""), new WKTWriter().write(geometry).replace(".0", ""));
+        assertEquals(4 * 4 * 8, arena.getSize());
+        Geometry geometry2 = new WKTReader(WKTReader.Engine.Fast, false, arena).read(wkt);
+        assertEquals(new WKTWriter().write(geometry), new WKTWriter().write(geometry2));
+    }
+
+    @Test
+    public void readWritesStraightIntoDirectMemory() {
+        final int[] creates = new int[1];
+        CoordinateArena arena = new CoordinateArena() {
+            @Override
+            public synchronized CoordinateSequence create(double[] values, Dimension dimension) {
+                creates[0]++;
+                return super.create(values, dimension);
+            }
+        };
+        String wkt = "POLYGON Z ((0 0 1, 10 0 2, 10 10 3, 0 0 1), (1 1 4, 2 1 5, 2 2 6, 1 1 4))";
+        byte[] wkb = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Big).write(new WKTReader().read(wkt));
+        Polygon polygon = (Polygon) new WKBReader(arena).read(wkb);
+        assertEquals(0, creates[0]);
+        assertEquals(2 * 4 * 3 * 8, arena.getSize());
+        assertEquals(Coordinate.create3D(10, 10, 3), polygon.getOuterLinearRing().getCoordinates().get(2));
+        assertEquals(Coordinate.create3D(2, 2, 6), polygon.getInnerLinearRings().get(0).getCoordinates().get(2));
+        // A Point keeps a Coordinate, so it doesn't need any direct memory
+        assertEquals("POINT (1.0 2.0)", new WKTWriter().write(new WKBReader(arena).read(new WKBWriter().write(new WKTReader().read("POINT (1 2)")))));
+        assertEquals(2 * 4 * 3 * 8, arena.getSize());
+        assertEquals(0, creates[0]);
+    }
+
+    @Test
+    public void readWithSharedDimension() {
+        // Parts that share a larger Dimension are copied with room for the values they don't have
+        CoordinateArena arena = new CoordinateArena();
+        LineString part = new LineString(Arrays.asList(Coordinate.create2D(1, 2), Coordinate.create2D(3, 4)), Dimension.Two);
+        MultiLineString multiLineString = new MultiLineString(Arrays.asList(part), Dimension.Three);
+        byte[] wkb = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little).write(multiLineString);
+        GeometryBuilder builder = new GeometryBuilder(true, arena);
+        assertTrue(new WKBReader(arena).read(wkb, builder));
+        LineString lineString = ((MultiLineString) builder.getGeometry()).getLineStrings().get(0);
+        assertEquals(Dimension.Three, lineString.getCoordinateSequence().getDimension());
+        assertEquals(new Coordinate(3, 4, Double.NaN, Double.NaN), lineString.getCoordinates().get(1));
+    }
+
+    @Test
+    public void closeFreesTheDirectMemory() {
+        CoordinateArena arena = new CoordinateArena();
+        arena.create(new double[]{1, 2, 3, 4}, Dimension.Two);
+        long used = getDirectMemoryUsed();
+        arena.close();
+        assertTrue(getDirectMemoryUsed() <= used - 1024 * 1024);
+    }
+
+    private static long getDirectMemoryUsed() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool.getMemoryUsed();
+            }
+        }
+        throw new IllegalStateException("There is no direct BufferPoolMXBean");
+    }
+
+    @Test
+    public void close() {
+        CoordinateArena arena = new CoordinateArena();
+        LineString lineString = (LineString) new WKTReader(WKTReader.Engine.Fast, false, arena).read("LINESTRING (1 2, 3 4)");
+        byte[] wkb = new WKBWriter().write(lineString);
+        assertFalse(arena.isClosed());
+        arena.close();
+        assertTrue(arena.isClosed());
+        assertEquals(0, arena.getCapacity());
+        assertEquals(2, lineString.getNumberOfCoordinates());
+        try {
+            lineString.getCoordinateSequence().getX(0);
+            fail("The CoordinateArena is closed");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        try {
+            new WKBReader(arena).read(wkb);
+            fail("Can't create CoordinateSequences after the CoordinateArena is closed");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+}
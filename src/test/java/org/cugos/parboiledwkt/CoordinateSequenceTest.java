@@ -0,0 +1,179 @@
+package org.cugos.parboiledwkt;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The CoordinateSequence Unit Test
+ */
+public class CoordinateSequenceTest {
+
+    @Test
+    public void packed2d() {
+        CoordinateSequence seq = new PackedCoordinateSequence(new double[]{1, 2, 3, 4}, Dimension.Two);
+        assertEquals(Dimension.Two, seq.getDimension());
+        assertEquals(2, seq.size());
+        assertFalse(seq.isEmpty());
+        assertEquals(3, seq.getX(1), 0.1);
+        assertEquals(4, seq.getY(1), 0.1);
+        assertTrue(Double.isNaN(seq.getZ(1)));
+        assertTrue(Double.isNaN(seq.getM(1)));
+        assertEquals(Coordinate.create2D(1, 2), seq.getCoordinate(0));
+    }
+
+    @Test
+    public void packed2dm() {
+        CoordinateSequence seq = new PackedCoordinateSequence(new double[]{1, 2, 3, 4, 5, 6}, Dimension.TwoMeasured);
+        assertEquals(2, seq.size());
+        assertTrue(Double.isNaN(seq.getZ(0)));
+        assertEquals(3, seq.getM(0), 0.1);
+        assertEquals(Coordinate.create2DM(4, 5, 6), seq.getCoordinate(1));
+    }
+
+    @Test
+    public void packed3dm() {
+        CoordinateSequence seq = new PackedCoordinateSequence(new double[]{1, 2, 3, 4}, Dimension.ThreeMeasured);
+        assertEquals(1, seq.size());
+        assertEquals(Coordinate.create3DM(1, 2, 3, 4), seq.getCoordinate(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void packedWrongNumberOfValues() {
+        new PackedCoordinateSequence(new double[]{1, 2, 3, 4}, Dimension.Three);
+    }
+
+    @Test
+    public void create() {
+        List<Coordinate> coordinates = Arrays.asList(Coordinate.create3D(1, 2, 3), Coordinate.create3D(4, 5, 6));
+        CoordinateSequence seq = CoordinateSequence.create(coordinates, Dimension.Three);
+        assertEquals(Dimension.Three, seq.getDimension());
+        assertEquals(coordinates, seq.asList());
+    }
+
+    @Test
+    public void createKeepsValuesTheDimensionDoesNotHave() {
+        List<Coordinate> coordinates = Arrays.asList(Coordinate.create2D(1, 2), Coordinate.create2DM(3, 4, 5));
+        CoordinateSequence seq = CoordinateSequence.create(coordinates, Dimension.Three);
+        assertEquals(Dimension.ThreeMeasured, seq.getDimension());
+        assertEquals(coordinates, seq.asList());
+        assertEquals(Dimension.Two, CoordinateSequence.create(Arrays.<Coordinate>asList(), null).getDimension());
+    }
+
+    @Test
+    public void builder() {
+        CoordinateSequence.Builder builder = new CoordinateSequence.Builder(1);
+        for (int i = 0; i < 10; i++) {
+            builder.add(i, i + 1, Double.NaN, Double.NaN);
+        }
+        assertEquals(10, builder.size());
+        assertEquals(Coordinate.create2D(9, 10), builder.getCoordinate(9));
+        CoordinateSequence seq = builder.build(Dimension.Two);
+        assertEquals(10, seq.size());
+        assertEquals(Coordinate.create2D(5, 6), seq.getCoordinate(5));
+    }
+
+    @Test
+    public void builderWithDimension() {
+        CoordinateSequence.Builder builder = new CoordinateSequence.Builder(2, Dimension.TwoMeasured);
+        builder.add(1, 2, 9, 3);
+        builder.add(4, 5, 9, 6);
+        assertEquals(Coordinate.create2DM(4, 5, 6), builder.getCoordinate(1));
+        final double[][] values = new double[1][];
+        CoordinateSequence seq = builder.build(Dimension.TwoMeasured, new CoordinateSequenceFactory() {
+            @Override
+            public CoordinateSequence create(double[] v, Dimension dimension) {
+                values[0] = v;
+                return PackedCoordinateSequence.FACTORY.create(v, dimension);
+            }
+        });
+        assertArrayEquals(new double[]{1, 2, 3, 4, 5, 6}, values[0], 0);
+        // Adding after building doesn't change the CoordinateSequence that has the array
+        builder.add(7, 8, 9, 10);
+        assertEquals(2, seq.size());
+        assertEquals(Coordinate.create2DM(4, 5, 6), seq.getCoordinate(1));
+        assertEquals(3, builder.build(Dimension.TwoMeasured).size());
+        // A larger Dimension has room for the values the Coordinates don't have
+        seq = builder.build(Dimension.Three);
+        assertEquals(Dimension.ThreeMeasured, seq.getDimension());
+        assertEquals(new Coordinate(7, 8, Double.NaN, 10), seq.getCoordinate(2));
+        seq = new CoordinateSequence.Builder(0, Dimension.Two).add(1, 2, 3, 4).build(Dimension.Two);
+        assertEquals(Dimension.Two, seq.getDimension());
+        assertEquals(Coordinate.create2D(1, 2), seq.getCoordinate(0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void asListIsUnmodifiable() {
+        CoordinateSequence seq = new PackedCoordinateSequence(new double[]{1, 2}, Dimension.Two);
+        seq.asList().add(Coordinate.create2D(3, 4));
+    }
+
+    @Test
+    public void lineString() {
+        CoordinateSequence seq = new PackedCoordinateSequence(new double[]{1, 2, 3, 4}, Dimension.Two);
+        LineString lineString = new LineString(seq, Dimension.Two, "4326");
+        assertSame(seq, lineString.getCoordinateSequence());
+        assertEquals(2, lineString.getNumberOfCoordinates());
+        assertEquals(Coordinate.create2D(3, 4), lineString.getCoordinates().get(1));
+        assertEquals("SRID=4326;LINESTRING (1.0 2.0, 3.0 4.0)", new WKTWriter().write(lineString));
+    }
+
+    @Test
+    public void layoutFollowsTheDimension() {
+        CoordinateSequence.Builder builder = new CoordinateSequence.Builder();
+        builder.add(1, 2, Double.NaN, 3);
+        builder.add(4, 5, Double.NaN, 6);
+        assertEquals(Dimension.TwoMeasured, builder.build(Dimension.Two).getDimension());
+        assertEquals(Dimension.ThreeMeasured, builder.build(Dimension.Three).getDimension());
+        CoordinateSequence seq = builder.build(Dimension.TwoMeasured);
+        assertEquals(2, seq.size());
+        assertEquals(Coordinate.create2DM(4, 5, 6), seq.getCoordinate(1));
+    }
+
+    @Test
+    public void floats() {
+        CoordinateSequence seq = FloatCoordinateSequence.FACTORY.create(new double[]{1.5, 2.25, 3, 4}, Dimension.Two);
+        assertTrue(seq instanceof FloatCoordinateSequence);
+        assertEquals(2, seq.size());
+        assertEquals(Coordinate.create2D(1.5, 2.25), seq.getCoordinate(0));
+        assertEquals(0.1f, FloatCoordinateSequence.FACTORY.create(new double[]{0.1, 0.2}, Dimension.Two).getX(0), 0);
+        seq = new FloatCoordinateSequence(new float[]{1, 2, 3}, Dimension.TwoMeasured);
+        assertTrue(Double.isNaN(seq.getZ(0)));
+        assertEquals(3, seq.getM(0), 0);
+    }
+
+    @Test
+    public void defaultFactory() {
+        assertSame(PackedCoordinateSequence.FACTORY, CoordinateSequence.getDefaultFactory());
+        CoordinateSequence.setDefaultFactory(FloatCoordinateSequence.FACTORY);
+        try {
+            LineString lineString = new LineString(Arrays.asList(Coordinate.create2D(1, 2)), Dimension.Two);
+            assertTrue(lineString.getCoordinateSequence() instanceof FloatCoordinateSequence);
+        } finally {
+            CoordinateSequence.setDefaultFactory(null);
+        }
+        assertSame(PackedCoordinateSequence.FACTORY, CoordinateSequence.getDefaultFactory());
+    }
+
+    @Test
+    public void readers() {
+        String wkt = "POLYGON ((0.1 0.2, 1 0, 1 1, 0.1 0.2))";
+        Polygon polygon = (Polygon) new WKTReader(WKTReader.Engine.Fast, false, FloatCoordinateSequence.FACTORY).read(wkt);
+        CoordinateSequence seq = polygon.getOuterLinearRing().getCoordinateSequence();
+        assertTrue(seq instanceof FloatCoordinateSequence);
+        assertEquals(0.1f, seq.getX(0), 0);
+        byte[] wkb = new WKBWriter().write(new WKTReader().read(wkt));
+        polygon = (Polygon) new WKBReader(FloatCoordinateSequence.FACTORY).read(wkb);
+        assertTrue(polygon.getOuterLinearRing().getCoordinateSequence() instanceof FloatCoordinateSequence);
+        assertTrue(new WKBReader().read(wkb) instanceof Polygon);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parboiledReaderCanNotUseAFactory() {
+        new WKTReader(WKTReader.Engine.Parboiled, false, FloatCoordinateSequence.FACTORY);
+    }
+
+}
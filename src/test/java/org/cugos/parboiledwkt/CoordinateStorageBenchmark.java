@@ -0,0 +1,135 @@
+package org.cugos.parboiledwkt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare reading WKB into the default PackedCoordinateSequence, the Coordinate objects that a LineString
+ * used to hold, and the FloatCoordinateSequence, both in throughput and in the memory each Geometry keeps.
+ * Run it from the command line with:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-cp %classpath org.cugos.parboiledwkt.CoordinateStorageBenchmark"
+ * </pre>
+ * @author Jared Erickson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinateStorageBenchmark {
+
+    @Param({"Coordinate", "Packed", "Float"})
+    public String storage;
+
+    /**
+     * A LineString with 1000 coordinates
+     */
+    private byte[] wkb;
+
+    private WKBReader reader;
+
+    @Setup
+    public void setUp() {
+        List<Coordinate> coordinates = new ArrayList<Coordinate>();
+        for (int i = 0; i < 1000; i++) {
+            coordinates.add(Coordinate.create2D(-122.5 + i * 0.0001, 47.25 + i * 0.0002));
+        }
+        wkb = new WKBWriter().write(new LineString(coordinates, Dimension.Two));
+        reader = new WKBReader("Float".equals(storage) ? FloatCoordinateSequence.FACTORY : PackedCoordinateSequence.FACTORY);
+    }
+
+    @Benchmark
+    public Object read() {
+        if ("Coordinate".equals(storage)) {
+            // Keep a Coordinate per vertex, like LineString did before CoordinateSequence
+            final List<Coordinate> coordinates = new ArrayList<Coordinate>();
+            reader.read(wkb, new GeometryHandler() {
+                @Override
+                public void startGeometry(WKB.GeometryType geometryType, Dimension dimension, String srid) {
+                }
+
+                @Override
+                public void startRing() {
+                }
+
+                @Override
+                public void coordinate(double x, double y, double z, double m) {
+                    coordinates.add(new Coordinate(x, y, z, m));
+                }
+
+                @Override
+                public void endRing() {
+                }
+
+                @Override
+                public void endGeometry(Dimension dimension) {
+                }
+            });
+            return coordinates;
+        }
+        return reader.read(wkb);
+    }
+
+    /**
+     * Estimate how many bytes each Geometry keeps after it has been read by keeping many of them
+     * @param storage The storage
+     * @return The number of bytes for each Geometry
+     */
+    private static long retainedBytes(String storage) {
+        CoordinateStorageBenchmark benchmark = new CoordinateStorageBenchmark();
+        benchmark.storage = storage;
+        benchmark.setUp();
+        Object[] geometries = new Object[2000];
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        for (int i = 0; i < geometries.length; i++) {
+            geometries[i] = benchmark.read();
+        }
+        System.gc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+        return geometries.length > 0 ? (after - before) / geometries.length : 0;
+    }
+
+    /**
+     * Run the benchmark with the GC profiler and print the throughput, the bytes allocated by each read,
+     * and the bytes kept by each Geometry
+     * @param args The command line arguments (not used)
+     * @throws RunnerException if the benchmark can't be run
+     */
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(CoordinateStorageBenchmark.class.getName()).addProfiler(GCProfiler.class);
+        for (RunResult result : new Runner(options.build()).run()) {
+            Result allocated = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            System.out.println(String.format("%s: %.0f ops/s, %.0f bytes/op",
+                    result.getParams().getParam("storage"), result.getPrimaryResult().getScore(),
+                    allocated != null ? allocated.getScore() : Double.NaN));
+        }
+        for (String storage : new String[]{"Coordinate", "Packed", "Float"}) {
+            System.out.println(String.format("%s: about %d bytes kept per Geometry", storage, retainedBytes(storage)));
+        }
+    }
+
+}
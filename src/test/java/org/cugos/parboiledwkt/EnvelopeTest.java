@@ -0,0 +1,97 @@
+package org.cugos.parboiledwkt;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The Envelope Unit Test
+ */
+public class EnvelopeTest {
+
+    private final WKTReader reader = new WKTReader();
+
+    @Test
+    public void create() {
+        Envelope envelope = new Envelope(1, 2, 3, 4);
+        assertEquals(1, envelope.getMinX(), 0);
+        assertEquals(2, envelope.getMinY(), 0);
+        assertEquals(3, envelope.getMaxX(), 0);
+        assertEquals(4, envelope.getMaxY(), 0);
+        assertTrue(Double.isNaN(envelope.getMinZ()));
+        assertTrue(Double.isNaN(envelope.getMaxM()));
+        assertFalse(envelope.isEmpty());
+        assertEquals("Envelope { x = 1.0 to 3.0 y = 2.0 to 4.0 }", envelope.toString());
+        assertEquals(new Envelope(1, 2, 3, 4), envelope);
+        assertEquals(new Envelope(1, 2, 3, 4).hashCode(), envelope.hashCode());
+        assertNotEquals(new Envelope(1, 2, 3, 5), envelope);
+    }
+
+    @Test
+    public void empty() {
+        assertTrue(Envelope.EMPTY.isEmpty());
+        assertEquals("Envelope { EMPTY }", Envelope.EMPTY.toString());
+        assertSame(Envelope.EMPTY, new Envelope.Builder().build());
+        assertSame(Envelope.EMPTY, reader.read("POINT EMPTY").getEnvelope());
+        assertSame(Envelope.EMPTY, reader.read("GEOMETRYCOLLECTION EMPTY").getEnvelope());
+        assertFalse(Envelope.EMPTY.intersects(Envelope.EMPTY));
+        assertFalse(Envelope.EMPTY.intersects(new Envelope(0, 0, 10, 10)));
+    }
+
+    @Test
+    public void intersects() {
+        Envelope envelope = new Envelope(0, 0, 10, 10);
+        assertTrue(envelope.intersects(new Envelope(5, 5, 15, 15)));
+        assertTrue(envelope.intersects(new Envelope(10, 10, 15, 15)));
+        assertTrue(envelope.intersects(2, 2, 3, 3));
+        assertFalse(envelope.intersects(new Envelope(11, 0, 15, 10)));
+        assertFalse(envelope.intersects(0, -5, 10, -1));
+    }
+
+    @Test
+    public void builder() {
+        Envelope.Builder builder = new Envelope.Builder();
+        builder.coordinate(1, 2, Double.NaN, 5);
+        builder.coordinate(-1, 4, 3, Double.NaN);
+        builder.coordinate(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        builder.add(new Envelope(0, 0, 2, 2, 1, 7, Double.NaN, Double.NaN));
+        assertEquals(new Envelope(-1, 0, 2, 4, 1, 7, 5, 5), builder.build());
+    }
+
+    @Test
+    public void geometries() {
+        assertEquals(new Envelope(1, 2, 1, 2), reader.read("POINT (1 2)").getEnvelope());
+        assertEquals(new Envelope(1, 2, 5, 6, 3, 7, 4, 8), reader.read("LINESTRING ZM (1 2 3 4, 5 6 7 8)").getEnvelope());
+        assertEquals(new Envelope(10, 10, 45, 45),
+                reader.read("POLYGON ((35 10, 45 45, 15 40, 10 20, 35 10),(20 30, 35 35, 30 20, 20 30))").getEnvelope());
+        assertEquals(new Envelope(-3, 0, 7, 10), reader.read("GEOMETRYCOLLECTION(POINT(-3 6),LINESTRING(4 0,7 10))").getEnvelope());
+        assertEquals(new Envelope(10, 10, 40, 40), reader.read("MULTIPOINT ((10 40), (40 30), (20 20), (30 10))").getEnvelope());
+    }
+
+    @Test
+    public void curves() {
+        // Half circle above the X axis
+        assertEquals(new Envelope(0, 0, 2, 1), reader.read("CIRCULARSTRING (0 0, 1 1, 2 0)").getEnvelope());
+        // Half circle below the X axis
+        assertEquals(new Envelope(0, -1, 2, 0), reader.read("CIRCULARSTRING (0 0, 1 -1, 2 0)").getEnvelope());
+        // The middle point is the highest point of the arc
+        assertEquals(1.7071067811865475,
+                reader.read("CIRCULARSTRING (0 1, 0.5 1.7071067811865475, 1 1)").getEnvelope().getMaxY(), 1e-6);
+        // Full circle
+        assertEquals(new Envelope(0, -1, 2, 1), reader.read("CIRCULARSTRING (0 0, 2 0, 0 0)").getEnvelope());
+        // Straight line
+        assertEquals(new Envelope(0, 0, 2, 2), reader.read("CIRCULARSTRING (0 0, 1 1, 2 2)").getEnvelope());
+        Envelope envelope = reader.read("COMPOUNDCURVE(CIRCULARSTRING(1 0, 0 1, -1 0), (-1 0, 2 0))").getEnvelope();
+        assertEquals(new Envelope(-1, 0, 2, 1), envelope);
+        envelope = reader.read("CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1))").getEnvelope();
+        assertEquals(2 - Math.sqrt(8), envelope.getMinX(), 1e-9);
+        assertEquals(2 + Math.sqrt(8), envelope.getMaxY(), 1e-9);
+    }
+
+    @Test
+    public void cached() {
+        Geometry geometry = reader.read("MULTILINESTRING ((0 0, 1 1), (2 2, 3 3))");
+        assertSame(geometry.getEnvelope(), geometry.getEnvelope());
+    }
+
+}
@@ -0,0 +1,248 @@
+package org.cugos.parboiledwkt;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Check the FastWKTParser against the parboiled WKTParser, which is the reference implementation.
+ * @author Jared Erickson
+ */
+public class FastWKTParserTest {
+
+    /**
+     * The WKT from the other unit tests plus the odd corners of the WKTParser grammar
+     */
+    static final String[] WKTS = {
+        // POINT
+        "POINT EMPTY",
+        "POINT (1 2)",
+        "POINT (1.0 2.0)",
+        "POINT (2.0 4)",
+        "POINT M (1 2 3)",
+        "POINT M (1 2 4.5)",
+        "POINT Z (1 2 3)",
+        "POINT ZM (1 2 3 4)",
+        "POINT ZM (1.0 2.0 3.0 4.0)",
+        "POINT (1 2 5)",
+        "POINT (1 2 5 4)",
+        "POINT (-122.014487 46.982752)",
+        "POINT (+1 -2)",
+        "POINT (1.0E10 -2.5e-3)",
+        "POINT (1E+2 3 4e1)",
+        "POINT (1e 2)",
+        "POINT (1 2e)",
+        "POINT (3.14159265358979323846 1e400)",
+        "POINT (1. 2)",
+        "POINT(1 2 )",
+        "POINTZ(1 2 3)",
+        "POINTEMPTY",
+        "POINT ZMZ (1 2)",
+        "POINT (1 2) trailing",
+        "SRID=4326;POINT (1 2)",
+        // LINESTRING
+        "LINESTRING EMPTY",
+        "LINESTRING (101 234,345 567)",
+        "LINESTRING M (101 234 5,345 567 6)",
+        "LINESTRING Z (101.1 234.2 5.4, 345.6 567.7 6.8)",
+        "LINESTRING ZM (101.1 234.2 5.4 1.2, 345.6 567.7 6.8 99.2)",
+        "LINESTRING (1 2, 3 4 5, 6 7)",
+        "SRID=4326;LINESTRING (101 234,345 567)",
+        // LINEARRING
+        "LINEARRING EMPTY",
+        "LINEARRING (1 2, 3 4, 5 6, 1 2)",
+        // POLYGON
+        "POLYGON EMPTY",
+        "POLYGON ((30 10, 40 40, 20 40, 10 20, 30 10))",
+        "POLYGON ((35 10, 45 45, 15 40, 10 20, 35 10),(20 30, 35 35, 30 20, 20 30))",
+        "POLYGON M ((30 10 1, 40 40 2, 20 40 3, 10 20 4, 30 10 1))",
+        "POLYGON Z ((30 10 1, 40 40 2, 20 40 3, 10 20 4, 30 10 1))",
+        "POLYGON ZM ((30 10 1 2, 40 40 2 4, 20 40 3 5, 10 20 4 6, 30 10 1 2))",
+        "POLYGON ((1191095.0091707027 657195.1523189925, 1159475.3267132244 596787.4007584371, " +
+            "1209500.4959743093 604338.3697035066, 1191095.0091707027 657195.1523189925))",
+        "SRID=4326;POLYGON ((30 10, 40 40, 20 40, 10 20, 30 10))",
+        // MULTIPOINT
+        "MULTIPOINT EMPTY",
+        "MULTIPOINT (10 40, 40 30, 20 20, 30 10)",
+        "MULTIPOINT ((10 40), (40 30), (20 20), (30 10))",
+        "MULTIPOINT M ((10 40 1), (40 30 2), (20 20 3), (30 10 4))",
+        "MULTIPOINT Z ((10 40 1), (40 30 2), (20 20 3), (30 10 4))",
+        "MULTIPOINT ZM ((10 40 1 4), (40 30 2 3), (20 20 3 2), (30 10 4 1))",
+        "MULTIPOINT M (1 2, 3 4 5 6)",
+        "SRID=4326;MULTIPOINT (1.1 2.2, 3.3 4.4)",
+        // MULTILINESTRING
+        "MULTILINESTRING EMPTY",
+        "MULTILINESTRING((0 0,1 1,1 2),(2 3,3 2,5 4))",
+        "MULTILINESTRING((0 0 0,1 1 0,1 2 1),(2 3 1,3 2 1,5 4 1))",
+        "MULTILINESTRING M ((0 0 0,1 1 0,1 2 1),(2 3 1,3 2 1,5 4 1))",
+        "MULTILINESTRING Z ((0 0 0,1 1 0,1 2 1),(2 3 1,3 2 1,5 4 1))",
+        "MULTILINESTRING ZM ((0 0 0 7,1 1 0 8,1 2 1 9),(2 3 1 5,3 2 1 4,5 4 1 3))",
+        "SRID=4326;MULTILINESTRING ((0.0 0.0, 1.0 1.0, 1.0 2.0), (2.0 3.0, 3.0 2.0, 5.0 4.0))",
+        // MULTIPOLYGON
+        "MULTIPOLYGON EMPTY",
+        "MULTIPOLYGON (((40 40, 20 45, 45 30, 40 40)),((20 35, 10 30, 10 10, 30 5, 45 20, 20 35),(30 20, 20 15, 20 25, 30 20)))",
+        "SRID=4326;MULTIPOLYGON Z (((40 40 1, 20 45 2, 45 30 3, 40 40 1)))",
+        // GEOMETRYCOLLECTION
+        "GEOMETRYCOLLECTION EMPTY",
+        "GEOMETRYCOLLECTION(POINT(4 6),LINESTRING(4 6,7 10))",
+        "GEOMETRYCOLLECTION M (POINT(4 6 3),LINESTRING(4 6 2,7 10 4))",
+        "GEOMETRYCOLLECTION Z (POINT(4 6 3),LINESTRING(4 6 2,7 10 4))",
+        "GEOMETRYCOLLECTION ZM (POINT(4 6 3 1.2),LINESTRING(4 6 2 3.4,7 10 4 5.6))",
+        "GEOMETRYCOLLECTION(POINT(1 2), POINT Z (1 2 3))",
+        "GEOMETRYCOLLECTION(POINT EMPTY, MULTIPOINT EMPTY, POINT (1 2))",
+        "GEOMETRYCOLLECTION(SRID=5;POINT(1 2), POINT(3 4))",
+        "GEOMETRYCOLLECTION(SRID=5;TRIANGLE((1 2,3 4,5 6,1 2)), POINT(3 4))",
+        "GEOMETRYCOLLECTION(GEOMETRYCOLLECTION(SRID=6;GEOMETRYCOLLECTION EMPTY), MULTICURVE((1 2, 3 4)))",
+        "SRID=4326;GEOMETRYCOLLECTION(POINT(4 6),LINESTRING(4 6,7 10))",
+        "SRID=4326;GEOMETRYCOLLECTION(POINT(4 6),MULTICURVE((1 2,3 4)),SRID=5;POINT(1 2))",
+        // CIRCULARSTRING
+        "CIRCULARSTRING EMPTY",
+        "CIRCULARSTRING(0 0, 1 1, 1 0)",
+        "CIRCULARSTRING M (101 234 5,345 567 6)",
+        "CIRCULARSTRING Z (101.1 234.2 5.4, 345.6 567.7 6.8)",
+        "CIRCULARSTRING ZM (101.1 234.2 5.4 1.2, 345.6 567.7 6.8 99.2)",
+        "SRID=4326;CIRCULARSTRING (101 234,345 567)",
+        // COMPOUNDCURVE
+        "COMPOUNDCURVE EMPTY",
+        "COMPOUNDCURVE(CIRCULARSTRING(1 0, 0 1, -1 0), (-1 0, 2 0))",
+        "COMPOUNDCURVE M (CIRCULARSTRING(1 0 1, 0 1 2, -1 0 3), (-1 0 3, 2 0 4))",
+        "COMPOUNDCURVE Z (CIRCULARSTRING(1 0 1, 0 1 2, -1 0 3), (-1 0 3, 2 0 4))",
+        "COMPOUNDCURVE ZM (CIRCULARSTRING(1 0 1 5, 0 1 2 4, -1 0 3 2), (-1 0 3 2, 2 0 4 1))",
+        "SRID=4326;COMPOUNDCURVE(CIRCULARSTRING(1 0, 0 1, -1 0), (-1 0, 2 0))",
+        // CURVEPOLYGON
+        "CURVEPOLYGON EMPTY",
+        "CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1))",
+        "CURVEPOLYGON M (CIRCULARSTRING(0 0 1, 4 0 2, 4 4 3, 0 4 4, 0 0 1),(1 1 6, 3 3 7, 3 1 8, 1 1 6))",
+        "CURVEPOLYGON Z (CIRCULARSTRING(0 0 1, 4 0 2, 4 4 3, 0 4 4, 0 0 1),(1 1 6, 3 3 7, 3 1 8, 1 1 6))",
+        "CURVEPOLYGON ZM (CIRCULARSTRING(0 0 1 2.3, 4 0 2 3.3, 4 4 3 4.3, 0 4 4 5.3, 0 0 1 2.3),(1 1 6 1.11, 3 3 7 2.22, 3 1 8 3.33, 1 1 6 1.11))",
+        "CURVEPOLYGON(COMPOUNDCURVE(CIRCULARSTRING(0 0, 1 1, 1 0), (1 0, 0 0)))",
+        "SRID=4326;CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1))",
+        // MULTICURVE
+        "MULTICURVE EMPTY",
+        "MULTICURVE((5 5,3 5,3 3,0 3),CIRCULARSTRING(0 0,2 1,2 2))",
+        "MULTICURVE M ((5 5 4,3 5 3,3 3 2,0 3 1),CIRCULARSTRING(0 0 1,2 1 2,2 2 3))",
+        "MULTICURVE Z ((5 5 4,3 5 3,3 3 2,0 3 1),CIRCULARSTRING(0 0 1,2 1 2,2 2 3))",
+        "MULTICURVE ZM ((5 5 4 6,3 5 3 7,3 3 2 8,0 3 1 9),CIRCULARSTRING(0 0 1 11,2 1 2 12,2 2 3 13))",
+        "SRID=4326;MULTICURVE((5 5,3 5,3 3,0 3),CIRCULARSTRING(0 0,2 1,2 2))",
+        // MULTISURFACE
+        "MULTISURFACE EMPTY",
+        "MULTISURFACE(CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1)),((10 10, 14 12, 11 10, 10 10),(11 11, 11.5 11, 11 11.5, 11 11)))",
+        "MULTISURFACE ZM (CURVEPOLYGON(CIRCULARSTRING(0 0 1 1, 4 0 2 2, 4 4 3 3, 0 4 4 4, 0 0 1 1),(1 1 1 1, 3 3 2 2, 3 1 3 3, 1 1 1 1)),((10 10 1 1, 14 12 2 2, 11 10 3 3, 10 10 1 1)))",
+        "SRID=4326;MULTISURFACE(CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1)),((10 10, 14 12, 11 10, 10 10),(11 11, 11.5 11, 11 11.5, 11 11)))",
+        // POLYHEDRALSURFACE
+        "POLYHEDRALSURFACE EMPTY",
+        "POLYHEDRALSURFACE (((40 40, 20 45, 45 30, 40 40)),((20 35, 10 30, 10 10, 30 5, 45 20, 20 35),(30 20, 20 15, 20 25, 30 20)))",
+        "SRID=4326;POLYHEDRALSURFACE M (((40 40 1, 20 45 2, 45 30 3, 40 40 1)))",
+        // TIN
+        "TIN EMPTY",
+        "TIN (((0 0, 1 0, 0 1, 0 0)), ((0 0, 0 1, 1 1, 0 0)))",
+        "TIN M (((0 0 22, 1 0 23, 0 1 24, 0 0 22)), ((0 0 22, 0 1 34, 1 1 35, 0 0 22)))",
+        "TIN Z (((0 0 22, 1 0 23, 0 1 24, 0 0 22)), ((0 0 22, 0 1 34, 1 1 35, 0 0 22)))",
+        "TIN ZM (((0 0 22 99, 1 0 23 98, 0 1 24 97, 0 0 22 99)), ((0 0 22 99, 0 1 34 45, 1 1 35 47, 0 0 22 99)))",
+        "SRID=4326;TIN (((0 0, 1 0, 0 1, 0 0)), ((0 0, 0 1, 1 1, 0 0)))",
+        // TRIANGLE
+        "TRIANGLE EMPTY",
+        "TRIANGLE((0 0 ,0 1,1 1,0 0))",
+        "TRIANGLE((0 0 0,0 1 0,1 1 0,0 0 0))",
+        "TRIANGLE M ((0 0 0,0 1 0,1 1 0,0 0 0))",
+        "TRIANGLE Z ((0 0 0,0 1 0,1 1 0,0 0 0))",
+        "TRIANGLE ZM ((0 0 0 1,0 1 0 2,1 1 0 3,0 0 0 1))",
+        "SRID=4326;TRIANGLE((0 0 ,0 1,1 1,0 0))",
+        // Invalid
+        "",
+        "POINT",
+        "POINT (1 2",
+        "POINT (1,2)",
+        "POINT  (1 2)",
+        "POINT (1e5 2)",
+        "POINT (.5 2)",
+        "POINT (- 2)",
+        "point (1 2)",
+        "SRID=;POINT (1 2)",
+        "SRID=4326 POINT (1 2)",
+        "LINESTRING (1 2, 3)",
+        "POLYGON (1 2, 3 4)",
+        "MULTIPOINT ((1 2), 3 4)",
+        "GEOMETRYCOLLECTION (POINT (1 2), FOO (1 2))",
+        "GEOMETRYCOLLECTION (POINT (1 2)",
+        "COMPOUNDCURVE (COMPOUNDCURVE ((1 2, 3 4)))",
+        "MULTISURFACE (POLYGON ((1 2, 3 4, 5 6, 1 2)))",
+        "CURVEPOLYGON (SRID=1;(1 2, 3 4))"
+    };
+
+    @Test
+    public void sameAsParboiled() {
+        WKTReader parboiledReader = new WKTReader(WKTReader.Engine.Parboiled);
+        WKTReader fastReader = new WKTReader(WKTReader.Engine.Fast);
+        for (String wkt : WKTS) {
+            assertGeometryEquals(wkt, parboiledReader.read(wkt), fastReader.read(wkt));
+        }
+    }
+
+    @Test
+    public void parseMultiple() {
+        WKTReader reader = new WKTReader(WKTReader.Engine.Fast);
+        assertEquals("POINT (1.0 2.0)", reader.read("POINT (1 2)").toString());
+        assertNull(reader.read("POINT (1 2"));
+        assertEquals("SRID=4326;POINT M (1.0 2.0 4.5)", reader.read("SRID=4326;POINT M (1 2 4.5)").toString());
+        assertEquals("GEOMETRYCOLLECTION Z (POINT (1.0 2.0), POINT (1.0 2.0 3.0))",
+                reader.read("GEOMETRYCOLLECTION(POINT(1 2), POINT Z (1 2 3))").toString());
+    }
+
+    /**
+     * Assert that two Geometries have the same type, Dimension, SRID and Coordinates all the way down
+     * @param wkt The WKT the Geometries were read from
+     * @param expected The expected Geometry
+     * @param actual The actual Geometry
+     */
+    static void assertGeometryEquals(String wkt, Geometry expected, Geometry actual) {
+        if (expected == null) {
+            assertNull(wkt, actual);
+            return;
+        }
+        assertNotNull(wkt, actual);
+        assertEquals(wkt, expected.getClass(), actual.getClass());
+        assertEquals(wkt, expected.getDimension(), actual.getDimension());
+        assertEquals(wkt, expected.getSrid(), actual.getSrid());
+        assertEquals(wkt, expected.isEmpty(), actual.isEmpty());
+        assertEquals(wkt, expected.getNumberOfCoordinates(), actual.getNumberOfCoordinates());
+        if (expected instanceof Point) {
+            assertEquals(wkt, ((Point) expected).getCoordinate(), ((Point) actual).getCoordinate());
+        } else if (expected instanceof LineString) {
+            assertEquals(wkt, ((LineString) expected).getCoordinates(), ((LineString) actual).getCoordinates());
+        } else if (expected instanceof CircularString) {
+            assertEquals(wkt, ((CircularString) expected).getCoordinates(), ((CircularString) actual).getCoordinates());
+        } else if (expected instanceof Polygon) {
+            Polygon expectedPolygon = (Polygon) expected;
+            Polygon actualPolygon = (Polygon) actual;
+            assertGeometryEquals(wkt, expectedPolygon.getOuterLinearRing(), actualPolygon.getOuterLinearRing());
+            assertGeometriesEquals(wkt, expectedPolygon.getInnerLinearRings(), actualPolygon.getInnerLinearRings());
+        } else if (expected instanceof CurvePolygon) {
+            CurvePolygon expectedPolygon = (CurvePolygon) expected;
+            CurvePolygon actualPolygon = (CurvePolygon) actual;
+            assertGeometryEquals(wkt, expectedPolygon.getOuterCurve(), actualPolygon.getOuterCurve());
+            assertGeometriesEquals(wkt, expectedPolygon.getInnerCurves(), actualPolygon.getInnerCurves());
+        } else if (expected instanceof CompoundCurve) {
+            assertGeometriesEquals(wkt, ((CompoundCurve) expected).getCurves(), ((CompoundCurve) actual).getCurves());
+        } else if (expected instanceof PolyHedralSurface) {
+            assertGeometriesEquals(wkt, ((PolyHedralSurface) expected).getPolygons(), ((PolyHedralSurface) actual).getPolygons());
+        } else if (expected instanceof Tin) {
+            assertGeometriesEquals(wkt, ((Tin) expected).getTriangles(), ((Tin) actual).getTriangles());
+        } else if (expected instanceof AbstractGeometryCollection) {
+            assertGeometriesEquals(wkt, ((AbstractGeometryCollection<?>) expected).geometries,
+                    ((AbstractGeometryCollection<?>) actual).geometries);
+        } else {
+            fail("Unknown Geometry " + expected.getClass().getName());
+        }
+    }
+
+    private static void assertGeometriesEquals(String wkt, List<? extends Geometry> expected, List<? extends Geometry> actual) {
+        assertEquals(wkt, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertGeometryEquals(wkt, expected.get(i), actual.get(i));
+        }
+    }
+
+}
@@ -150,5 +150,23 @@ public class GeometryCollectionTest {
         // WKT
         assertEquals("GEOMETRYCOLLECTION ZM (POINT (4.0 6.0 3.0 1.2), LINESTRING (4.0 6.0 2.0 3.4, 7.0 10.0 4.0 5.6))", gc.toString());
     }
-}
 
+    @Test
+    public void forEachCoordinate() {
+        final int[] count = new int[1];
+        final double[] sum = new double[1];
+        Geometry geometry = new WKTReader().read("GEOMETRYCOLLECTION (POINT (1 2), GEOMETRYCOLLECTION (LINESTRING (3 4, 5 6), " +
+                "TIN (((0 0, 1 0, 0 1, 0 0)))), MULTIPOINT ((7 8)))");
+        geometry.forEachCoordinate(new CoordinateConsumer() {
+            @Override
+            public void coordinate(double x, double y, double z, double m) {
+                count[0]++;
+                sum[0] += x;
+            }
+        });
+        assertEquals(geometry.getNumberOfCoordinates(), count[0]);
+        assertEquals(8, count[0]);
+        assertEquals(1 + 3 + 5 + 1 + 7, sum[0], 0.0);
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.cugos.parboiledwkt;
+
+import org.junit.Test;
+
+import java.nio.BufferUnderflowException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The GeometryHandler Unit Test
+ * @author Jared Erickson
+ */
+public class GeometryHandlerTest {
+
+    private final WKTReader reader = new WKTReader(WKTReader.Engine.Fast);
+
+    @Test
+    public void point() {
+        RecordingHandler handler = new RecordingHandler();
+        assertTrue(reader.read("SRID=4326;POINT (1 2)", handler));
+        assertEquals("[start Point Two 4326, coordinate 1.0 2.0 NaN NaN, end Two]", handler.events.toString());
+    }
+
+    @Test
+    public void polygon() {
+        RecordingHandler handler = new RecordingHandler();
+        assertTrue(reader.read("POLYGON ((1 2, 3 4, 5 6, 1 2), (2 3, 3 4 7, 2 3))", handler));
+        assertEquals("[start Polygon Two null, " +
+                "ring, coordinate 1.0 2.0 NaN NaN, coordinate 3.0 4.0 NaN NaN, coordinate 5.0 6.0 NaN NaN, coordinate 1.0 2.0 NaN NaN, end ring, " +
+                "ring, coordinate 2.0 3.0 NaN NaN, coordinate 3.0 4.0 7.0 NaN, coordinate 2.0 3.0 NaN NaN, end ring, " +
+                "end Three]", handler.events.toString());
+    }
+
+    @Test
+    public void geometryCollection() {
+        RecordingHandler handler = new RecordingHandler();
+        assertTrue(reader.read("GEOMETRYCOLLECTION M (POINT EMPTY, MULTIPOINT ((1 2 3)), CIRCULARSTRING (1 2 3, 4 5 6))", handler));
+        assertEquals("[start GeometryCollection TwoMeasured null, " +
+                "start Point Two null, end Two, " +
+                "start MultiPoint TwoMeasured null, start Point TwoMeasured null, coordinate 1.0 2.0 NaN 3.0, end TwoMeasured, end TwoMeasured, " +
+                "start CircularString TwoMeasured null, coordinate 1.0 2.0 NaN 3.0, coordinate 4.0 5.0 NaN 6.0, end TwoMeasured, " +
+                "end TwoMeasured]", handler.events.toString());
+    }
+
+    @Test
+    public void invalid() {
+        RecordingHandler handler = new RecordingHandler();
+        assertFalse(reader.read("LINESTRING (1 2, 3)", handler));
+        assertEquals("[start LineString Two null, coordinate 1.0 2.0 NaN NaN]", handler.events.toString());
+    }
+
+    @Test
+    public void builder() {
+        GeometryBuilder builder = new GeometryBuilder();
+        assertTrue(reader.read("MULTILINESTRING ((1 2, 3 4), (5 6, 7 8 9))", builder));
+        assertEquals("MULTILINESTRING Z ((1.0 2.0, 3.0 4.0), (5.0 6.0, 7.0 8.0 9.0))", new WKTWriter().write(builder.getGeometry()));
+        assertTrue(reader.read("POINT (1 2)", builder));
+        assertEquals("POINT (1.0 2.0)", new WKTWriter().write(builder.getGeometry()));
+    }
+
+    @Test
+    public void builderAfterFailedRead() {
+        GeometryBuilder builder = new GeometryBuilder();
+        assertFalse(reader.read("MULTILINESTRING ((1 2, 3 4), (5", builder));
+        assertNull(builder.getGeometry());
+        assertTrue(reader.read("POINT (1 2)", builder));
+        assertEquals("POINT (1.0 2.0)", new WKTWriter().write(builder.getGeometry()));
+        // And with WKB
+        GeometryBuilder wkbBuilder = new GeometryBuilder(false);
+        byte[] wkb = new WKBWriter().write(reader.read("MULTILINESTRING ((1 2, 3 4), (5 6, 7 8))"));
+        WKBReader wkbReader = new WKBReader();
+        try {
+            wkbReader.read(Arrays.copyOf(wkb, wkb.length - 8), wkbBuilder);
+            fail("The WKB is truncated");
+        } catch (BufferUnderflowException e) {
+            // The builder is left half way through the MultiLineString
+        }
+        assertTrue(wkbReader.read(new WKBWriter().write(reader.read("POINT (1 2)")), wkbBuilder));
+        assertEquals("POINT (1.0 2.0)", new WKTWriter().write(wkbBuilder.getGeometry()));
+        // Or reset by hand
+        assertFalse(reader.read("LINESTRING (1 2,", builder));
+        builder.reset();
+        assertNull(builder.getGeometry());
+    }
+
+    @Test
+    public void builderSharesDimensionLikeRead() {
+        String wkt = "MULTILINESTRING ((1 2, 3 4), (1 2 3, 4 5 6))";
+        GeometryBuilder builder = new GeometryBuilder();
+        assertTrue(reader.read(wkt, builder));
+        MultiLineString multiLineString = (MultiLineString) builder.getGeometry();
+        assertEquals(Dimension.Three, multiLineString.getLineStrings().get(0).getDimension());
+        assertEquals(new WKTWriter().write(reader.read(wkt)), new WKTWriter().write(multiLineString));
+        // Like WKB, each part keeps its own Dimension
+        GeometryBuilder wkbBuilder = new GeometryBuilder(false);
+        assertTrue(reader.read(wkt, wkbBuilder));
+        assertEquals(Dimension.Two, ((MultiLineString) wkbBuilder.getGeometry()).getLineStrings().get(0).getDimension());
+    }
+
+    /**
+     * A GeometryHandler that records each event as a String
+     */
+    static class RecordingHandler implements GeometryHandler {
+
+        final List<String> events = new ArrayList<String>();
+
+        @Override
+        public void startGeometry(WKB.GeometryType geometryType, Dimension dimension, String srid) {
+            events.add("start " + geometryType + " " + dimension + " " + srid);
+        }
+
+        @Override
+        public void startRing() {
+            events.add("ring");
+        }
+
+        @Override
+        public void coordinate(double x, double y, double z, double m) {
+            events.add("coordinate " + x + " " + y + " " + z + " " + m);
+        }
+
+        @Override
+        public void endRing() {
+            events.add("end ring");
+        }
+
+        @Override
+        public void endGeometry(Dimension dimension) {
+            events.add("end " + dimension);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.cugos.parboiledwkt;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * The HexDecoder Unit Test
+ */
+public class HexDecoderTest {
+
+    private final byte[] expected = {0, 1, 9, 10, 15, 16, 127, -128, -85, -1};
+
+    private final String hex = "0001090a0F107f80aBff";
+
+    @Test
+    public void decodeCharSequence() {
+        byte[] bytes = new byte[expected.length];
+        assertTrue(HexDecoder.decode(hex, 0, hex.length(), bytes));
+        assertArrayEquals(expected, bytes);
+        bytes = new byte[2];
+        assertTrue(HexDecoder.decode(new StringBuilder("xx" + hex), 4, 4, bytes));
+        assertArrayEquals(new byte[]{1, 9}, bytes);
+    }
+
+    @Test
+    public void decodeChars() {
+        byte[] bytes = new byte[expected.length];
+        assertTrue(HexDecoder.decode(hex.toCharArray(), 0, hex.length(), bytes));
+        assertArrayEquals(expected, bytes);
+    }
+
+    @Test
+    public void decodeAsciiBytes() {
+        byte[] bytes = new byte[expected.length];
+        assertTrue(HexDecoder.decode(hex.getBytes(StandardCharsets.US_ASCII), 0, hex.length(), bytes));
+        assertArrayEquals(expected, bytes);
+        // Decode in place
+        bytes = hex.getBytes(StandardCharsets.US_ASCII);
+        assertTrue(HexDecoder.decode(bytes, 0, bytes.length, bytes));
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], bytes[i]);
+        }
+    }
+
+    @Test
+    public void invalid() {
+        byte[] bytes = new byte[4];
+        assertFalse(HexDecoder.decode("012", 0, 3, bytes));
+        assertFalse(HexDecoder.decode("0g", 0, 2, bytes));
+        assertFalse(HexDecoder.decode("g0", 0, 2, bytes));
+        assertFalse(HexDecoder.decode("0\u00e9", 0, 2, bytes));
+        assertFalse(HexDecoder.decode(" 0", 0, 2, bytes));
+        assertFalse(HexDecoder.decode(new byte[]{'0', (byte) 0xC1}, 0, 2, bytes));
+        assertFalse(HexDecoder.decode(new char[]{'f', '\uff10'}, 0, 2, bytes));
+    }
+
+}
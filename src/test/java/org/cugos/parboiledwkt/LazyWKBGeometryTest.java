@@ -0,0 +1,129 @@
+package org.cugos.parboiledwkt;
+
+import org.cugos.parboiledwkt.WKB.Endian;
+import org.cugos.parboiledwkt.WKB.GeometryType;
+import org.cugos.parboiledwkt.WKB.Type;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The LazyWKBGeometry Unit Test
+ */
+public class LazyWKBGeometryTest {
+
+    private final WKTReader wktReader = new WKTReader();
+
+    private final WKBReader wkbReader = new WKBReader();
+
+    @Test
+    public void header() {
+        byte[] wkb = new WKBWriter(Type.EWKB, Endian.Little).write(
+                wktReader.read("SRID=4326;MULTILINESTRING Z ((1 2 3, 4 5 6), (7 8 9, 10 11 12, 13 14 15))"));
+        LazyWKBGeometry geometry = wkbReader.readLazy(wkb);
+        assertEquals(GeometryType.MultiLineString, geometry.getGeometryType());
+        assertEquals(Dimension.Three, geometry.getDimension());
+        assertEquals("4326", geometry.getSrid());
+        assertEquals(Endian.Little, geometry.getEndian());
+        assertEquals(5, geometry.getNumberOfCoordinates());
+        assertFalse(geometry.isEmpty());
+        assertEquals(new Envelope(1, 2, 13, 14, 3, 15, Double.NaN, Double.NaN), geometry.getEnvelope());
+        assertSame(wkb, geometry.getWKB());
+        assertFalse(geometry.isRead());
+    }
+
+    @Test
+    public void forEachCoordinate() {
+        Geometry expected = wktReader.read("GEOMETRYCOLLECTION (POINT EMPTY, POINT (1 2), LINESTRING (3 4, 5 6))");
+        LazyWKBGeometry geometry = wkbReader.readLazy(new WKBWriter().write(
+                wktReader.read("GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (3 4, 5 6))")));
+        final List<Double> values = new ArrayList<Double>();
+        geometry.forEachCoordinate(new CoordinateConsumer() {
+            @Override
+            public void coordinate(double x, double y, double z, double m) {
+                values.add(x);
+                values.add(y);
+            }
+        });
+        assertEquals(Arrays.asList(1.0, 2.0, 3.0, 4.0, 5.0, 6.0), values);
+        assertEquals(expected.getNumberOfCoordinates(), geometry.getNumberOfCoordinates());
+        assertFalse(geometry.isRead());
+    }
+
+    @Test
+    public void getGeometry() {
+        String wkt = "SRID=4326;POLYGON ((35.0 10.0, 45.0 45.0, 15.0 40.0, 10.0 20.0, 35.0 10.0))";
+        LazyWKBGeometry geometry = wkbReader.readLazy(new WKBWriter(Type.EWKB, Endian.Big).write(wktReader.read(wkt)));
+        assertEquals(wkt, geometry.toString());
+        assertTrue(geometry.isRead());
+        assertTrue(geometry.getGeometry() instanceof Polygon);
+        assertSame(geometry.getGeometry(), geometry.getGeometry());
+        assertEquals(5, geometry.getNumberOfCoordinates());
+    }
+
+    @Test
+    public void isEmpty() {
+        assertTrue(wkbReader.readLazy(new WKBWriter().write(wktReader.read("LINESTRING EMPTY"))).isEmpty());
+        assertTrue(wkbReader.readLazy(new WKBWriter().write(wktReader.read("POLYGON EMPTY"))).isEmpty());
+        assertTrue(wkbReader.readLazy(new WKBWriter().write(wktReader.read("GEOMETRYCOLLECTION EMPTY"))).isEmpty());
+        assertFalse(wkbReader.readLazy(new WKBWriter().write(wktReader.read("POINT (1 2)"))).isEmpty());
+        ByteBuffer emptyPoint = ByteBuffer.allocate(21).order(ByteOrder.LITTLE_ENDIAN);
+        emptyPoint.put((byte) 1).putInt(1).putDouble(Double.NaN).putDouble(Double.NaN);
+        LazyWKBGeometry point = wkbReader.readLazy(emptyPoint.array());
+        assertTrue(point.isEmpty());
+        assertEquals(0, point.getNumberOfCoordinates());
+    }
+
+    @Test
+    public void writeCopiesTheBytes() {
+        Geometry geometry = wktReader.read("SRID=4326;LINESTRING M (1 2 3, 4 5 6)");
+        byte[] wkb = new WKBWriter(Type.EWKB, Endian.Little).write(geometry);
+        LazyWKBGeometry lazy = wkbReader.readLazy(wkb);
+        byte[] written = new WKBWriter(Type.EWKB, Endian.Little).write(lazy);
+        assertArrayEquals(wkb, written);
+        assertNotSame(wkb, written);
+        assertFalse(lazy.isRead());
+        // Inside of a collection
+        List<Geometry> geometries = new ArrayList<Geometry>();
+        geometries.add(lazy);
+        geometries.add(wktReader.read("POINT M (7 8 9)"));
+        GeometryCollection collection = new GeometryCollection(geometries, Dimension.TwoMeasured);
+        List<Geometry> expectedGeometries = new ArrayList<Geometry>(geometries);
+        expectedGeometries.set(0, geometry);
+        GeometryCollection expected = new GeometryCollection(expectedGeometries, Dimension.TwoMeasured);
+        assertArrayEquals(new WKBWriter(Type.EWKB, Endian.Little).write(expected),
+                new WKBWriter(Type.EWKB, Endian.Little).write(collection));
+        assertFalse(lazy.isRead());
+    }
+
+    @Test
+    public void writeEncodesWhenTheBytesDiffer() {
+        Geometry geometry = wktReader.read("SRID=4326;POINT (1 2)");
+        LazyWKBGeometry lazy = wkbReader.readLazy(new WKBWriter(Type.EWKB, Endian.Little).write(geometry));
+        assertArrayEquals(new WKBWriter(Type.EWKB, Endian.Big).write(geometry), new WKBWriter(Type.EWKB, Endian.Big).write(lazy));
+        assertArrayEquals(new WKBWriter(Type.WKB, Endian.Little).write(geometry), new WKBWriter(Type.WKB, Endian.Little).write(lazy));
+        assertTrue(lazy.isRead());
+        // Plain WKB is also what an EWKB writer writes without an SRID
+        LazyWKBGeometry plain = wkbReader.readLazy(new WKBWriter().write(wktReader.read("POINT (1 2)")));
+        assertTrue(plain.isWrittenBy(Type.WKB, Endian.Big));
+        assertTrue(plain.isWrittenBy(Type.EWKB, Endian.Big));
+        // ISO WKB is never copied
+        ByteBuffer iso = ByteBuffer.allocate(29).order(ByteOrder.LITTLE_ENDIAN);
+        iso.put((byte) 1).putInt(1001).putDouble(1).putDouble(2).putDouble(3);
+        assertFalse(wkbReader.readLazy(iso.array()).isWrittenBy(Type.EWKB, Endian.Little));
+    }
+
+    @Test
+    public void readLazyWithBadHeader() {
+        assertNull(wkbReader.readLazy(new byte[]{0, 0, 0}));
+        assertNull(wkbReader.readLazy(new byte[]{2, 0, 0, 0, 1}));
+        assertNull(wkbReader.readLazy(new byte[]{0, 0, 0, 0, 99}));
+    }
+
+}
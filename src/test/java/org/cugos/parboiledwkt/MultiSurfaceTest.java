@@ -408,5 +408,18 @@ public class MultiSurfaceTest {
             assertEquals(wkt, newWkt);
         }
     }
-}
 
+    @Test
+    public void forEachCoordinate() {
+        final StringBuilder builder = new StringBuilder();
+        new WKTReader().read("MULTISURFACE(CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1)),((10 10, 14 12, 11 10, 10 10)))")
+                .forEachCoordinate(new CoordinateConsumer() {
+            @Override
+            public void coordinate(double x, double y, double z, double m) {
+                builder.append((int) x).append(" ").append((int) y).append(",");
+            }
+        });
+        assertEquals("0 0,4 0,4 4,0 4,0 0,1 1,3 3,3 1,1 1,10 10,14 12,11 10,10 10,", builder.toString());
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.cugos.parboiledwkt;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The NumberParser Unit Test
+ * @author Jared Erickson
+ */
+public class NumberParserTest {
+
+    @Test
+    public void scan() {
+        assertEquals(1, NumberParser.scan("1", 0, 1));
+        assertEquals(6, NumberParser.scan("(-12.5 3)", 1, 9));
+        assertEquals(3, NumberParser.scan("+3.", 0, 3));
+        assertEquals(7, NumberParser.scan("1.0E-10", 0, 7));
+        assertEquals(3, NumberParser.scan("2e5 ", 0, 4));
+        assertEquals(1, NumberParser.scan("2e 5", 0, 4));
+        assertEquals(1, NumberParser.scan("2e-", 0, 3));
+        assertEquals(-1, NumberParser.scan(".5", 0, 2));
+        assertEquals(-1, NumberParser.scan("-", 0, 1));
+        assertEquals(-1, NumberParser.scan("", 0, 0));
+    }
+
+    @Test
+    public void parse() {
+        String[] numbers = {
+            "0", "-0", "+0", "0.0", "-0.0", "1", "-1", "1.", "1.5", "-122.014487", "46.982752",
+            "0.1", "0.3", "3.14159265358979323846", "1191095.0091707027", "657195.1523189925",
+            "9007199254740993", "123456789012345678901234567890", "0.000000000000000000000000000001",
+            "1.0E10", "2e-3", "1E+22", "1e23", "4.9E-324", "2.4E-324", "1.7976931348623157E308", "1e309", "-1e-400",
+            "000123.4500", "0.1234567890123456789", "179769313486231570000000000000000000000000000000",
+            "2.2250738585072011E-308", "1e99999999999"
+        };
+        for (String number : numbers) {
+            assertParsed(number);
+        }
+    }
+
+    @Test
+    public void parseRandom() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                assertParsed(Double.toString(value));
+            }
+            assertParsed(Double.toString(random.nextDouble() * 1000000));
+            assertParsed(String.format("%.6f", (random.nextDouble() - 0.5) * 360));
+            assertParsed(Long.toString(random.nextLong()));
+        }
+    }
+
+    private void assertParsed(String number) {
+        String wkt = "(" + number + " ";
+        int end = NumberParser.scan(wkt, 1, wkt.length());
+        assertEquals(number, wkt.length() - 1, end);
+        assertEquals(number, Double.doubleToLongBits(Double.parseDouble(number)),
+                Double.doubleToLongBits(NumberParser.parse(wkt, 1, end)));
+    }
+
+}
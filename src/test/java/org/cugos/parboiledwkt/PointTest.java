@@ -184,4 +184,19 @@ public class PointTest {
         geometry = result.resultValue;
         assertEquals("POINT (-122.014487 46.982752)", geometry.toString());
     }
+
+    @Test
+    public void forEachCoordinate() {
+        final StringBuilder builder = new StringBuilder();
+        CoordinateConsumer consumer = new CoordinateConsumer() {
+            @Override
+            public void coordinate(double x, double y, double z, double m) {
+                builder.append(x).append(" ").append(y).append(" ").append(z).append(" ").append(m).append(";");
+            }
+        };
+        new WKTReader().read("POINT ZM (1 2 3 4)").forEachCoordinate(consumer);
+        new WKTReader().read("POINT EMPTY").forEachCoordinate(consumer);
+        assertEquals("1.0 2.0 3.0 4.0;", builder.toString());
+    }
+
 }
@@ -163,4 +163,17 @@ public class PolygonTest {
         // WKT
         assertEquals("POLYGON ZM ((30.0 10.0 1.0 2.0, 40.0 40.0 2.0 4.0, 20.0 40.0 3.0 5.0, 10.0 20.0 4.0 6.0, 30.0 10.0 1.0 2.0))", p.toString());
     }
+
+    @Test
+    public void forEachCoordinate() {
+        final StringBuilder builder = new StringBuilder();
+        new WKTReader().read("POLYGON ((0 0, 4 0, 4 4, 0 0),(1 1, 2 1, 2 2, 1 1))").forEachCoordinate(new CoordinateConsumer() {
+            @Override
+            public void coordinate(double x, double y, double z, double m) {
+                builder.append((int) x).append(" ").append((int) y).append(",");
+            }
+        });
+        assertEquals("0 0,4 0,4 4,0 0,1 1,2 1,2 2,1 1,", builder.toString());
+    }
+
 }
@@ -0,0 +1,100 @@
+package org.cugos.parboiledwkt;
+
+import org.cugos.parboiledwkt.WKB.Endian;
+import org.cugos.parboiledwkt.WKB.Type;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+/**
+ * The WKBEnvelopeScanner Unit Test
+ */
+public class WKBEnvelopeScannerTest {
+
+    private final WKBEnvelopeScanner scanner = new WKBEnvelopeScanner();
+
+    @Test
+    public void scan() {
+        WKTReader reader = new WKTReader();
+        for (String wkt : FastWKTParserTest.WKTS) {
+            Geometry geometry = reader.read(wkt);
+            // WKBWriter writes no coordinate for an empty Point, which WKBReader can't read
+            if (geometry == null || (geometry instanceof Point && geometry.isEmpty())) {
+                continue;
+            }
+            // WKB only has Z and M flags in EWKB
+            for (Type type : Type.values()) {
+                if (type == Type.WKB && geometry.getDimension() != Dimension.Two) {
+                    continue;
+                }
+                for (Endian endian : Endian.values()) {
+                    byte[] wkb = new WKBWriter(type, endian).write(geometry);
+                    Geometry read = new WKBReader().read(wkb);
+                    assertEquals(wkt + " " + type + " " + endian, read == null ? null : read.getEnvelope(), scanner.scan(wkb));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void scanCurves() {
+        byte[] wkb = new WKBWriter(Type.EWKB, Endian.Little).write(new WKTReader().read("CIRCULARSTRING (0 0, 1 1, 2 0)"));
+        assertEquals(new Envelope(0, 0, 2, 1), scanner.scan(wkb));
+    }
+
+    @Test
+    public void scanZM() {
+        byte[] wkb = new WKBWriter(Type.EWKB, Endian.Big).write(new WKTReader().read("SRID=4326;MULTIPOINT ZM ((1 2 3 4), (5 6 7 8))"));
+        assertEquals(new Envelope(1, 2, 5, 6, 3, 7, 4, 8), scanner.scan(wkb));
+    }
+
+    @Test
+    public void scanIso() {
+        // ISO WKB LineString Z (1002) in little endian
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 4 + 2 * 24).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 1).putInt(1002).putInt(2);
+        buffer.putDouble(1).putDouble(2).putDouble(3);
+        buffer.putDouble(4).putDouble(5).putDouble(6);
+        assertEquals(new Envelope(1, 2, 4, 5, 3, 6, Double.NaN, Double.NaN), scanner.scan(buffer.array()));
+    }
+
+    @Test
+    public void scanOffsetAndByteBuffer() {
+        byte[] wkb = new WKBWriter(Type.WKB, Endian.Big).write(new WKTReader().read("LINESTRING (1 2, 3 4)"));
+        byte[] bytes = new byte[wkb.length + 3];
+        System.arraycopy(wkb, 0, bytes, 2, wkb.length);
+        assertEquals(new Envelope(1, 2, 3, 4), scanner.scan(bytes, 2, wkb.length));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(bytes);
+        buffer.position(2);
+        assertEquals(new Envelope(1, 2, 3, 4), scanner.scan(buffer));
+        assertEquals(2, buffer.position());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+    }
+
+    @Test
+    public void scanTruncated() {
+        String[] wkts = {"POINT ZM (1 2 3 4)", "CIRCULARSTRING (0 0, 1 1, 2 0)", "SRID=4326;POLYGON ((0 0, 1 0, 1 1, 0 0))",
+                "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), ((5 5, 6 5, 6 6, 5 5)))"};
+        for (String wkt : wkts) {
+            for (Endian endian : Endian.values()) {
+                byte[] wkb = new WKBWriter(Type.EWKB, endian).write(new WKTReader().read(wkt));
+                for (int length = 0; length < wkb.length; length++) {
+                    assertNull(wkt + " " + endian + " " + length, scanner.scan(wkb, 0, length));
+                }
+                assertNotNull(scanner.scan(wkb, 0, wkb.length));
+            }
+        }
+    }
+
+    @Test
+    public void scanEmptyAndUnknown() {
+        byte[] wkb = new WKBWriter(Type.WKB, Endian.Big).write(new WKTReader().read("GEOMETRYCOLLECTION EMPTY"));
+        assertSame(Envelope.EMPTY, scanner.scan(wkb));
+        assertNull(scanner.scan(new byte[]{0, 0, 0, 0, 99}));
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.cugos.parboiledwkt;
+
+import org.cugos.parboiledwkt.WKB.GeometryType;
+import org.cugos.parboiledwkt.WKB.GeometryTypeFlag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure WKBReader.read on large MultiPolygons and GeometryCollections, where the type int is decoded
+ * for every child, and compare decoding the type ints with the WKBTypeCode table against the loop over
+ * GeometryType.values() that WKBReader used to do.
+ * Run it from the command line with:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-cp %classpath org.cugos.parboiledwkt.WKBReaderBenchmark"
+ * </pre>
+ * @author Jared Erickson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WKBReaderBenchmark {
+
+    @Param({"MultiPolygon", "GeometryCollection"})
+    public String geometry;
+
+    private final WKBReader reader = new WKBReader();
+
+    private byte[] wkb;
+
+    /**
+     * The type int of every Geometry in the WKB
+     */
+    private int[] codes;
+
+    @Setup
+    public void setUp() {
+        List<Geometry> geometries = new ArrayList<Geometry>();
+        for (int i = 0; i < 10000; i++) {
+            double x = i % 100;
+            double y = i / 100;
+            if (geometry.equals("MultiPolygon") || i % 2 == 0) {
+                List<Coordinate> coordinates = new ArrayList<Coordinate>();
+                coordinates.add(Coordinate.create2D(x, y));
+                coordinates.add(Coordinate.create2D(x + 1, y));
+                coordinates.add(Coordinate.create2D(x + 1, y + 1));
+                coordinates.add(Coordinate.create2D(x, y));
+                List<LinearRing> holes = new ArrayList<LinearRing>();
+                geometries.add(new Polygon(new LinearRing(coordinates, Dimension.Two), holes, Dimension.Two));
+            } else {
+                geometries.add(new Point(Coordinate.create2D(x, y), Dimension.Two));
+            }
+        }
+        Geometry collection;
+        if (geometry.equals("MultiPolygon")) {
+            List<Polygon> polygons = new ArrayList<Polygon>();
+            for (Geometry g : geometries) {
+                polygons.add((Polygon) g);
+            }
+            collection = new MultiPolygon(polygons, Dimension.Two, "4326");
+        } else {
+            collection = new GeometryCollection(geometries, Dimension.Two, "4326");
+        }
+        wkb = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little).write(collection);
+        codes = new int[geometries.size() + 1];
+        codes[0] = (geometry.equals("MultiPolygon") ? 6 : 7) | GeometryTypeFlag.SRID.getValue();
+        for (int i = 0; i < geometries.size(); i++) {
+            codes[i + 1] = geometries.get(i) instanceof Point ? 1 : 3;
+        }
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        blackhole.consume(reader.read(wkb));
+    }
+
+    @Benchmark
+    public void decodeWithTable(Blackhole blackhole) {
+        for (int code : codes) {
+            blackhole.consume(WKBTypeCode.get(code));
+        }
+    }
+
+    @Benchmark
+    public void decodeWithLoop(Blackhole blackhole) {
+        for (int code : codes) {
+            int gt = code;
+            boolean hasZ = false;
+            boolean hasM = false;
+            if ((code & GeometryTypeFlag.M.getValue()) == GeometryTypeFlag.M.getValue()) {
+                hasM = true;
+                gt = gt - GeometryTypeFlag.M.getValue();
+            }
+            if ((code & GeometryTypeFlag.Z.getValue()) == GeometryTypeFlag.Z.getValue()) {
+                hasZ = true;
+                gt = gt - GeometryTypeFlag.Z.getValue();
+            }
+            if ((code & GeometryTypeFlag.SRID.getValue()) == GeometryTypeFlag.SRID.getValue()) {
+                gt = gt - GeometryTypeFlag.SRID.getValue();
+            }
+            if (gt > 1000 && gt < 4000) {
+                hasZ |= gt / 1000 == 1 || gt / 1000 == 3;
+                hasM |= gt / 1000 == 2 || gt / 1000 == 3;
+                gt = gt % 1000;
+            }
+            GeometryType geometryType = null;
+            for (GeometryType type : GeometryType.values()) {
+                if (type.getValue() == gt) {
+                    geometryType = type;
+                }
+            }
+            blackhole.consume(geometryType);
+            blackhole.consume(Dimension.get(hasZ, hasM));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WKBReaderBenchmark.class.getName()).build()).run();
+    }
+
+}
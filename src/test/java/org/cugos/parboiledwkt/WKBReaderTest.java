@@ -1,6 +1,15 @@
 package org.cugos.parboiledwkt;
 
 import org.junit.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class WKBReaderTest {
@@ -137,4 +146,200 @@ public class WKBReaderTest {
         assertGeometryEquals(wkt, wkb);
     }
 
+    @Test
+    public void readWithHandler() {
+        String wkb = wkbWriter.writeToHex(wktReader.read("MULTIPOLYGON (((40 40, 20 45, 45 30, 40 40)),((20 35, 10 30, 10 10, 30 5, 45 20, 20 35),(30 20, 20 15, 20 25, 30 20)))"));
+        GeometryHandlerTest.RecordingHandler handler = new GeometryHandlerTest.RecordingHandler();
+        assertTrue(wkbReader.read(wkb, handler));
+        assertEquals("start MultiPolygon Two null", handler.events.get(0));
+        assertEquals("start Polygon Two null", handler.events.get(1));
+        assertEquals("ring", handler.events.get(2));
+        assertEquals("coordinate 40.0 40.0 NaN NaN", handler.events.get(3));
+        assertEquals("end Two", handler.events.get(handler.events.size() - 1));
+        int coordinates = 0;
+        int rings = 0;
+        for (String event : handler.events) {
+            if (event.startsWith("coordinate")) {
+                coordinates++;
+            } else if (event.equals("ring")) {
+                rings++;
+            }
+        }
+        assertEquals(14, coordinates);
+        assertEquals(3, rings);
+    }
+
+    @Test
+    public void readUnknownGeometryType() {
+        assertFalse(wkbReader.read("000000000E00000000", new GeometryHandlerTest.RecordingHandler()));
+        assertEquals(null, wkbReader.read("000000000E00000000"));
+    }
+
+    @Test
+    public void readWithEnvelope() {
+        Envelope envelope = new Envelope(0, 0, 10, 10);
+        WKBWriter writer = new WKBWriter();
+        WKBReader reader = new WKBReader();
+        WKTReader wktReader = new WKTReader();
+        assertEquals("LINESTRING (5.0 5.0, 20.0 20.0)",
+                new WKTWriter().write(reader.read(writer.write(wktReader.read("LINESTRING (5 5, 20 20)")), envelope)));
+        assertNull(reader.read(writer.write(wktReader.read("LINESTRING (15 15, 20 20)")), envelope));
+        assertNull(reader.read(writer.write(wktReader.read("MULTIPOINT ((-1 -1), (11 -1))")), envelope));
+        // The arc dips into the envelope even though its Coordinates are all above it
+        assertTrue(reader.read(writer.write(wktReader.read("CIRCULARSTRING (-4.8667723 16.4087889, -4.0932667 14.75, 14.8667723 16.4087889)")), envelope) instanceof CircularString);
+        // WKB that ends early can't be read
+        byte[] wkb = writer.write(wktReader.read("POLYGON ((1 1, 5 1, 5 5, 1 1))"));
+        for (int length = 0; length < wkb.length; length++) {
+            assertNull(reader.read(Arrays.copyOf(wkb, length), envelope));
+        }
+    }
+
+    @Test
+    public void readByteBuffer() {
+        WKTReader wktReader = new WKTReader();
+        byte[] point = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little).write(wktReader.read("SRID=4326;POINT (1 2)"));
+        byte[] line = new WKBWriter(WKB.Type.WKB, WKB.Endian.Big).write(wktReader.read("LINESTRING (3 4, 5 6)"));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(3 + point.length + line.length);
+        buffer.put(new byte[]{9, 9, 9}).put(point).put(line);
+        buffer.flip();
+        buffer.position(3);
+        WKBReader reader = new WKBReader();
+        assertEquals("SRID=4326;POINT (1.0 2.0)", new WKTWriter().write(reader.read(buffer)));
+        assertEquals(3 + point.length, buffer.position());
+        assertEquals("LINESTRING (3.0 4.0, 5.0 6.0)", new WKTWriter().write(reader.read(buffer)));
+        assertEquals(buffer.limit(), buffer.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+    }
+
+    @Test
+    public void readByteBufferThatCanNotBeRead() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{0, 0, 0, 0, 99}).order(ByteOrder.LITTLE_ENDIAN);
+        assertNull(new WKBReader().read(buffer));
+        assertEquals(0, buffer.position());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+    }
+
+    @Test
+    public void readIsoWkb() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 4 + 2 * (1 + 4 + 24)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 1).putInt(1004).putInt(2);
+        buffer.put((byte) 1).putInt(1001).putDouble(1).putDouble(2).putDouble(3);
+        buffer.put((byte) 1).putInt(1001).putDouble(4).putDouble(5).putDouble(6);
+        Geometry geometry = new WKBReader().read(buffer.array());
+        assertEquals("MULTIPOINT Z (1.0 2.0 3.0, 4.0 5.0 6.0)", new WKTWriter().write(geometry));
+    }
+
+    @Test
+    public void readUnknownByteOrder() {
+        byte[] wkb = new WKBWriter().write(new WKTReader().read("POINT (1 2)"));
+        wkb[0] = 2;
+        assertNull(new WKBReader().read(wkb));
+        assertNull(new WKBEnvelopeScanner().scan(wkb));
+    }
+
+    @Test
+    public void readHex() {
+        WKBReader reader = new WKBReader();
+        WKTWriter writer = new WKTWriter();
+        String hex = "0101000020E6100000000000000000F03F0000000000000040";
+        assertEquals("SRID=4326;POINT (1.0 2.0)", writer.write(reader.readHex(hex)));
+        assertEquals("SRID=4326;POINT (1.0 2.0)", writer.write(reader.readHex(new StringBuilder(hex.toLowerCase()))));
+        String line = "1\t" + hex + "\n";
+        assertEquals("SRID=4326;POINT (1.0 2.0)", writer.write(reader.readHex(line.toCharArray(), 2, hex.length())));
+        assertEquals("SRID=4326;POINT (1.0 2.0)", writer.write(reader.readHex(line.getBytes(), 2, hex.length())));
+        // The decoded bytes are reused, so a longer and then a shorter Geometry both read correctly
+        StringBuilder lineString = new StringBuilder("000000000200000400");
+        for (int i = 0; i < 1024 * 2; i++) {
+            lineString.append("3FF0000000000000");
+        }
+        assertEquals(1024, ((LineString) reader.readHex(lineString)).getNumberOfCoordinates());
+        assertEquals("SRID=4326;POINT (1.0 2.0)", writer.write(reader.read(hex)));
+    }
+
+    @Test
+    public void readLargeHex() {
+        // More than the 4 MB each thread keeps, so it is decoded into an array of its own
+        double[] values = new double[600000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        LineString lineString = new LineString(new PackedCoordinateSequence(values, Dimension.Two), Dimension.Two);
+        String hex = new WKBWriter().writeToHex(lineString);
+        LineString read = (LineString) new WKBReader().readHex(hex);
+        assertEquals(300000, read.getNumberOfCoordinates());
+        assertEquals(Coordinate.create2D(599998, 599999), read.getCoordinates().get(299999));
+        // Another WKBReader on the same thread still reads small and large hex
+        WKBReader reader = new WKBReader();
+        assertEquals("SRID=4326;POINT (1.0 2.0)", new WKTWriter().write(reader.readHex("0101000020E6100000000000000000F03F0000000000000040")));
+        assertEquals(300000, ((LineString) reader.readHex(hex)).getNumberOfCoordinates());
+    }
+
+    @Test
+    public void readInvalidHex() {
+        WKBReader reader = new WKBReader();
+        assertNull(reader.read("0101000020E6100000000000000000F03F000000000000004"));
+        assertNull(reader.read("0101000020E6100000000000000000F03F000000000000004X"));
+        assertFalse(reader.readHex("ZZ", new EnvelopeHandler()));
+    }
+
+    @Test
+    public void measure() {
+        for (String wkt : FastWKTParserTest.WKTS) {
+            Geometry geometry = wktReader.read(wkt);
+            // WKBWriter writes no coordinate for an empty Point, which WKBReader can't read
+            if (geometry == null || (geometry instanceof Point && geometry.isEmpty())) {
+                continue;
+            }
+            for (WKB.Type type : WKB.Type.values()) {
+                // WKB only has Z and M flags in EWKB
+                if (type == WKB.Type.WKB && geometry.getDimension() != Dimension.Two) {
+                    continue;
+                }
+                for (WKB.Endian endian : WKB.Endian.values()) {
+                    byte[] wkb = new WKBWriter(type, endian).write(geometry);
+                    byte[] bytes = new byte[wkb.length + 3];
+                    System.arraycopy(wkb, 0, bytes, 2, wkb.length);
+                    // The length is what reading the Geometry consumes
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, wkb.length);
+                    int expected = wkbReader.read(buffer) == null ? -1 : buffer.position() - 2;
+                    assertEquals(wkt + " " + type + " " + endian, expected, wkbReader.measure(bytes, 2));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void skip() {
+        byte[] point = new WKBWriter(WKB.Type.EWKB, WKB.Endian.Little).write(wktReader.read("SRID=4326;POINT Z (1 2 3)"));
+        byte[] polygon = new WKBWriter().write(wktReader.read("POLYGON ((35 10, 45 45, 15 40, 10 20, 35 10),(20 30, 35 35, 30 20, 20 30))"));
+        ByteBuffer buffer = ByteBuffer.allocate(point.length + polygon.length + point.length);
+        buffer.put(point).put(polygon).put(point).flip();
+        assertEquals(point.length, wkbReader.measure(buffer));
+        assertEquals(0, buffer.position());
+        assertEquals(point.length, wkbReader.skip(buffer));
+        assertEquals(polygon.length, wkbReader.skip(buffer));
+        assertEquals("SRID=4326;POINT Z (1.0 2.0 3.0)", new WKTWriter().write(wkbReader.read(buffer)));
+        assertFalse(buffer.hasRemaining());
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+    }
+
+    @Test
+    public void skipThatCanNotBeRead() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{0, 0, 0, 0, 99});
+        assertEquals(-1, wkbReader.skip(buffer));
+        assertEquals(0, buffer.position());
+        assertEquals(-1, wkbReader.measure(new byte[]{2, 0, 0, 0, 1}, 0));
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void measureTruncated() {
+        byte[] wkb = new WKBWriter().write(wktReader.read("LINESTRING (1 2, 3 4)"));
+        wkbReader.measure(Arrays.copyOf(wkb, wkb.length - 1), 0);
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void measureHugeCount() {
+        wkbReader.measure(new byte[]{0, 0, 0, 0, 2, 0x7F, -1, -1, -1}, 0);
+    }
+
 }
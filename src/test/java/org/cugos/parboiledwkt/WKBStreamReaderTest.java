@@ -0,0 +1,170 @@
+package org.cugos.parboiledwkt;
+
+import org.cugos.parboiledwkt.WKB.Endian;
+import org.cugos.parboiledwkt.WKB.Type;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+/**
+ * The WKBStreamReader Unit Test
+ */
+public class WKBStreamReaderTest {
+
+    private final WKTWriter wktWriter = new WKTWriter();
+
+    @Test
+    public void readInputStream() throws IOException {
+        List<String> wkts = new ArrayList<String>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WKTReader wktReader = new WKTReader();
+        for (int i = 0; i < 5000; i++) {
+            String wkt = i % 2 == 0 ? "POINT (" + i + ".0 " + (i + 1) + ".0)" : "SRID=4326;LINESTRING Z (" + i + ".0 1.0 2.0, 3.0 4.0 5.0)";
+            wkts.add(wkt);
+            Endian endian = i % 3 == 0 ? Endian.Big : Endian.Little;
+            out.write(new WKBWriter(Type.EWKB, endian).write(wktReader.read(wkt)));
+        }
+        WKBStreamReader reader = new WKBStreamReader(new ByteArrayInputStream(out.toByteArray()));
+        List<String> actual = new ArrayList<String>();
+        while (reader.hasNext()) {
+            actual.add(wktWriter.write(reader.next()));
+        }
+        reader.close();
+        assertEquals(wkts, actual);
+    }
+
+    @Test
+    public void readChannelWithLargeGeometries() throws IOException {
+        // Each LineString is bigger than the initial buffer, so the buffer has to grow
+        List<Coordinate> coordinates = new ArrayList<Coordinate>();
+        for (int i = 0; i < 10000; i++) {
+            coordinates.add(Coordinate.create2D(i, -i));
+        }
+        LineString lineString = new LineString(coordinates, Dimension.Two);
+        byte[] wkb = new WKBWriter().write(lineString);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(wkb);
+        out.write(new WKBWriter().write(new WKTReader().read("POINT (1 2)")));
+        out.write(wkb);
+        WKBStreamReader reader = new WKBStreamReader(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(lineString.getCoordinates(), ((LineString) reader.next()).getCoordinates());
+        assertEquals("POINT (1.0 2.0)", wktWriter.write(reader.next()));
+        assertEquals(lineString.getCoordinates(), ((LineString) reader.next()).getCoordinates());
+        assertFalse(reader.hasNext());
+        reader.close();
+    }
+
+    @Test
+    public void readSlowInputStream() throws IOException {
+        // Like a socket or a pipe, the InputStream returns a few bytes at a time and never knows
+        // how many are available, so each Geometry spans many reads but should only be decoded once
+        List<Coordinate> coordinates = new ArrayList<Coordinate>();
+        for (int i = 0; i < 100000; i++) {
+            coordinates.add(Coordinate.create2D(i, -i));
+        }
+        LineString lineString = new LineString(coordinates, Dimension.Two);
+        WKTReader wktReader = new WKTReader();
+        List<Polygon> polygons = new ArrayList<Polygon>();
+        for (int i = 0; i < 2000; i++) {
+            polygons.add((Polygon) wktReader.read("POLYGON ((" + i + " 0, 1 1, 0 1, " + i + " 0), (0 0, 1 1, 0 1, 0 0))"));
+        }
+        MultiPolygon multiPolygon = new MultiPolygon(polygons, Dimension.Two);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new WKBWriter().write(lineString));
+        out.write(new WKBWriter().write(multiPolygon));
+        out.write(new WKBWriter().write(wktReader.read("POINT (1 2)")));
+        final byte[] bytes = out.toByteArray();
+        InputStream input = new InputStream() {
+            private int position;
+            @Override
+            public int read() {
+                return position < bytes.length ? bytes[position++] & 0xff : -1;
+            }
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (position >= bytes.length) {
+                    return -1;
+                }
+                int length = Math.min(Math.min(len, 1000), bytes.length - position);
+                System.arraycopy(bytes, position, b, off, length);
+                position += length;
+                return length;
+            }
+            @Override
+            public int available() {
+                return 0;
+            }
+        };
+        final int[] reads = new int[1];
+        WKBStreamReader reader = new WKBStreamReader(input, new WKBReader() {
+            @Override
+            public Geometry read(ByteBuffer buffer) {
+                reads[0]++;
+                return super.read(buffer);
+            }
+        });
+        assertEquals(lineString.getCoordinates(), ((LineString) reader.next()).getCoordinates());
+        assertEquals(wktWriter.write(multiPolygon), wktWriter.write(reader.next()));
+        assertEquals("POINT (1.0 2.0)", wktWriter.write(reader.next()));
+        assertFalse(reader.hasNext());
+        reader.close();
+        assertEquals(3, reads[0]);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void readEmpty() {
+        WKBStreamReader reader = new WKBStreamReader(new ByteArrayInputStream(new byte[0]));
+        assertFalse(reader.hasNext());
+        reader.next();
+    }
+
+    @Test
+    public void readTruncated() {
+        byte[] wkb = new WKBWriter().write(new WKTReader().read("LINESTRING (1 2, 3 4)"));
+        byte[] bytes = new byte[wkb.length * 2 - 5];
+        System.arraycopy(wkb, 0, bytes, 0, wkb.length);
+        System.arraycopy(wkb, 0, bytes, wkb.length, wkb.length - 5);
+        WKBStreamReader reader = new WKBStreamReader(new ByteArrayInputStream(bytes));
+        assertEquals("LINESTRING (1.0 2.0, 3.0 4.0)", wktWriter.write(reader.next()));
+        assertTrue(reader.hasNext());
+        try {
+            reader.next();
+            fail("The second Geometry is truncated");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getMessage().contains("byte " + wkb.length));
+        }
+    }
+
+    @Test
+    public void readInflatedCount() {
+        // A LineString that claims 100 million XY Coordinates but ends after one
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 4 + 16);
+        buffer.put((byte) 0).putInt(2).putInt(100000000).putDouble(1).putDouble(2);
+        WKBStreamReader reader = new WKBStreamReader(new ByteArrayInputStream(buffer.array()));
+        try {
+            reader.next();
+            fail("The LineString is truncated");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause() instanceof EOFException);
+            assertTrue(e.getMessage().contains("byte 0"));
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void readUnknownGeometryType() {
+        new WKBStreamReader(new ByteArrayInputStream(new byte[]{0, 0, 0, 0, 99})).next();
+    }
+
+}
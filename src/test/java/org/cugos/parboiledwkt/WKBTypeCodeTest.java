@@ -0,0 +1,69 @@
+package org.cugos.parboiledwkt;
+
+import org.cugos.parboiledwkt.WKB.GeometryType;
+import org.cugos.parboiledwkt.WKB.GeometryTypeFlag;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The WKBTypeCode Unit Test
+ */
+public class WKBTypeCodeTest {
+
+    @Test
+    public void wkb() {
+        for (GeometryType geometryType : GeometryType.values()) {
+            WKBTypeCode code = WKBTypeCode.get(geometryType.getValue());
+            if (geometryType == GeometryType.Curve || geometryType == GeometryType.Surface) {
+                assertNull(code);
+            } else {
+                assertEquals(geometryType, code.getGeometryType());
+                assertEquals(Dimension.Two, code.getDimension());
+                assertFalse(code.hasSrid());
+            }
+        }
+    }
+
+    @Test
+    public void ewkb() {
+        int z = GeometryTypeFlag.Z.getValue();
+        int m = GeometryTypeFlag.M.getValue();
+        int srid = GeometryTypeFlag.SRID.getValue();
+        assertCode(WKBTypeCode.get(3 | z), GeometryType.Polygon, Dimension.Three, false);
+        assertCode(WKBTypeCode.get(3 | m), GeometryType.Polygon, Dimension.TwoMeasured, false);
+        assertCode(WKBTypeCode.get(3 | z | m), GeometryType.Polygon, Dimension.ThreeMeasured, false);
+        assertCode(WKBTypeCode.get(7 | srid), GeometryType.GeometryCollection, Dimension.Two, true);
+        assertCode(WKBTypeCode.get(17 | z | m | srid), GeometryType.Triangle, Dimension.ThreeMeasured, true);
+    }
+
+    @Test
+    public void iso() {
+        assertCode(WKBTypeCode.get(1001), GeometryType.Point, Dimension.Three, false);
+        assertCode(WKBTypeCode.get(2002), GeometryType.LineString, Dimension.TwoMeasured, false);
+        assertCode(WKBTypeCode.get(3006), GeometryType.MultiPolygon, Dimension.ThreeMeasured, false);
+        assertCode(WKBTypeCode.get(1015 | GeometryTypeFlag.SRID.getValue()), GeometryType.PolyHedralSurface,
+                Dimension.Three, true);
+        assertCode(WKBTypeCode.get(2008 | GeometryTypeFlag.Z.getValue()), GeometryType.CircularString,
+                Dimension.ThreeMeasured, false);
+    }
+
+    @Test
+    public void unknown() {
+        assertNull(WKBTypeCode.get(0));
+        assertNull(WKBTypeCode.get(18));
+        assertNull(WKBTypeCode.get(999));
+        assertNull(WKBTypeCode.get(1000));
+        assertNull(WKBTypeCode.get(1013));
+        assertNull(WKBTypeCode.get(4001));
+        assertNull(WKBTypeCode.get(-1));
+        assertNull(WKBTypeCode.get(Integer.MAX_VALUE));
+    }
+
+    private void assertCode(WKBTypeCode code, GeometryType geometryType, Dimension dimension, boolean srid) {
+        assertEquals(geometryType, code.getGeometryType());
+        assertEquals(dimension, code.getDimension());
+        assertEquals(srid, code.hasSrid());
+    }
+
+}
@@ -0,0 +1,106 @@
+package org.cugos.parboiledwkt;
+
+import org.cugos.parboiledwkt.WKB.Endian;
+import org.cugos.parboiledwkt.WKB.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare WKBWriter.write, which encodes a Geometry in one pass into a reused buffer, with calculating
+ * the number of bytes first and then encoding into an exactly sized buffer, which is how WKBWriter used to write,
+ * on large MultiPolygons and PolyHedralSurfaces, with one WKBWriter and with a new WKBWriter for each write.
+ * Run it from the command line with:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-cp %classpath org.cugos.parboiledwkt.WKBWriterBenchmark"
+ * </pre>
+ * @author Jared Erickson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WKBWriterBenchmark {
+
+    /**
+     * MultiPolygon and PolyHedralSurface are about 1 MB, LargeMultiPolygon is about 6 MB, which is more
+     * than a thread keeps for encoding
+     */
+    @Param({"MultiPolygon", "PolyHedralSurface", "LargeMultiPolygon"})
+    public String geometry;
+
+    private final WKBWriter writer = new WKBWriter(Type.EWKB, Endian.Little);
+
+    private Geometry g;
+
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        List<Polygon> polygons = new ArrayList<Polygon>();
+        int numberOfPolygons = geometry.equals("LargeMultiPolygon") ? 50000 : 10000;
+        for (int i = 0; i < numberOfPolygons; i++) {
+            double x = i % 100;
+            double y = i / 100;
+            List<Coordinate> coordinates = new ArrayList<Coordinate>();
+            coordinates.add(Coordinate.create3D(x, y, i));
+            coordinates.add(Coordinate.create3D(x + 1, y, i));
+            coordinates.add(Coordinate.create3D(x + 1, y + 1, i));
+            coordinates.add(Coordinate.create3D(x, y, i));
+            polygons.add(new Polygon(new LinearRing(coordinates, Dimension.Three), new ArrayList<LinearRing>(), Dimension.Three));
+        }
+        if (geometry.endsWith("MultiPolygon")) {
+            g = new MultiPolygon(polygons, Dimension.Three, "4326");
+        } else {
+            g = new PolyHedralSurface(polygons, Dimension.Three, "4326");
+        }
+        buffer = ByteBuffer.allocate(writer.getNumberOfBytes(g));
+    }
+
+    @Benchmark
+    public byte[] twoPass() {
+        ByteBuffer b = ByteBuffer.allocate(writer.getNumberOfBytes(g));
+        writer.write(g, b);
+        return b.array();
+    }
+
+    @Benchmark
+    public byte[] singlePass() {
+        return writer.write(g);
+    }
+
+    @Benchmark
+    public byte[] singlePassWithNewWriter() {
+        return new WKBWriter(Type.EWKB, Endian.Little).write(g);
+    }
+
+    @Benchmark
+    public int singlePassIntoByteBuffer() {
+        ((Buffer) buffer).clear();
+        return writer.write(g, buffer);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WKBWriterBenchmark.class.getName()).build()).run();
+    }
+
+}
@@ -3,7 +3,18 @@ package org.cugos.parboiledwkt;
 import org.cugos.parboiledwkt.WKB.Endian;
 import org.cugos.parboiledwkt.WKB.Type;
 import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 public class WKBWriterTest {
 
@@ -169,6 +180,87 @@ public class WKBWriterTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void coordinatesFollowTheGeometryDimension() {
+        // The second Coordinate has no Z but the header says there is one, so a NaN Z is written
+        LineString lineString = new LineString(Arrays.asList(
+                Coordinate.create3D(1, 2, 3), Coordinate.create2D(4, 5)), Dimension.Three);
+        WKBWriter wkb = new WKBWriter(Type.EWKB, Endian.Big);
+        byte[] bytes = wkb.write(lineString);
+        assertEquals(1 + 4 + 4 + 2 * 3 * 8, bytes.length);
+        LineString actual = (LineString) new WKBReader().read(bytes);
+        assertEquals(Coordinate.create3D(1, 2, 3), actual.getCoordinates().get(0));
+        assertEquals(Coordinate.create3D(4, 5, Double.NaN), actual.getCoordinates().get(1));
+    }
 
-}
+    @Test
+    public void writeToByteBuffer() {
+        WKBWriter writer = new WKBWriter(Type.EWKB, Endian.Little);
+        Geometry point = wkt.read("SRID=4326;POINT (2 4)");
+        Geometry polygon = wkt.read("POLYGON Z ((35 10 1, 45 45 2, 15 40 3, 10 20 4, 35 10 1))");
+        byte[] pointBytes = writer.write(point);
+        byte[] polygonBytes = writer.write(polygon);
+        ByteBuffer buffer = ByteBuffer.allocate(2 + pointBytes.length + polygonBytes.length);
+        buffer.put((byte) 7);
+        assertEquals(pointBytes.length, writer.write(point, buffer));
+        assertEquals(polygonBytes.length, writer.write(polygon, buffer));
+        assertEquals(buffer.capacity() - 1, buffer.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+        assertArrayEquals(pointBytes, Arrays.copyOfRange(buffer.array(), 1, 1 + pointBytes.length));
+        assertArrayEquals(polygonBytes, Arrays.copyOfRange(buffer.array(), 1 + pointBytes.length, buffer.position()));
+        try {
+            writer.write(point, buffer);
+            fail("The Geometry doesn't fit");
+        } catch (BufferOverflowException e) {
+            assertEquals(buffer.capacity() - 1, buffer.position());
+        }
+    }
+
+    @Test
+    public void writeToOutputStreamAndChannel() throws IOException {
+        WKBWriter writer = new WKBWriter(Type.EWKB, Endian.Big);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream channelOut = new ByteArrayOutputStream();
+        StringBuilder lineString = new StringBuilder("LINESTRING (0 0");
+        for (int i = 1; i < 1000; i++) {
+            lineString.append(", ").append(i).append(" ").append(-i);
+        }
+        lineString.append(")");
+        // Bigger, then smaller Geometries than the reused buffer
+        String[] wkts = {"POINT (1 2)", lineString.toString(), "SRID=4326;LINESTRING M (1 2 3, 4 5 6)"};
+        for (String w : wkts) {
+            Geometry geometry = wkt.read(w);
+            byte[] bytes = writer.write(geometry);
+            expected.write(bytes);
+            assertEquals(bytes.length, writer.write(geometry, out));
+            assertEquals(bytes.length, writer.write(geometry, Channels.newChannel(channelOut)));
+        }
+        assertArrayEquals(expected.toByteArray(), out.toByteArray());
+        assertArrayEquals(expected.toByteArray(), channelOut.toByteArray());
+    }
+
+    @Test
+    public void getNumberOfBytes() {
+        for (String w : FastWKTParserTest.WKTS) {
+            Geometry geometry = wkt.read(w);
+            if (geometry == null) {
+                continue;
+            }
+            for (Type type : Type.values()) {
+                WKBWriter writer = new WKBWriter(type, Endian.Little);
+                assertEquals(w + " " + type, writer.getNumberOfBytes(geometry), writer.write(geometry).length);
+            }
+        }
+    }
 
+    @Test
+    public void emptyCurvesHaveNoCoordinates() {
+        WKBWriter writer = new WKBWriter(Type.WKB, Endian.Big);
+        assertEquals("000000000200000000", writer.writeToHex(wkt.read("LINESTRING EMPTY")));
+        assertEquals("000000000800000000", writer.writeToHex(wkt.read("CIRCULARSTRING EMPTY")));
+        assertEquals("000000000A00000000", writer.writeToHex(wkt.read("CURVEPOLYGON EMPTY")));
+        assertEquals("LINESTRING EMPTY", new WKTWriter().write(new WKBReader().read(writer.write(wkt.read("LINESTRING EMPTY")))));
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.cugos.parboiledwkt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure how WKTReader.read throughput scales when one WKTReader is shared by many threads.
+ * Run it from the command line with:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-cp %classpath org.cugos.parboiledwkt.WKTReaderBenchmark"
+ * </pre>
+ * @author Jared Erickson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WKTReaderBenchmark {
+
+    private static final String[] WKTS = {
+        "POINT (-122.014487 46.982752)",
+        "SRID=4326;LINESTRING (101.1 234.2, 345.6 567.7, 12.3 45.6, 78.9 10.11)",
+        "POLYGON ((35 10, 45 45, 15 40, 10 20, 35 10),(20 30, 35 35, 30 20, 20 30))",
+        "MULTIPOINT Z ((10 40 1), (40 30 2), (20 20 3), (30 10 4))",
+        "GEOMETRYCOLLECTION(POINT(4 6),LINESTRING(4 6,7 10))",
+        "CURVEPOLYGON(CIRCULARSTRING(0 0, 4 0, 4 4, 0 4, 0 0),(1 1, 3 3, 3 1, 1 1))"
+    };
+
+    @Param({"Parboiled", "Fast"})
+    public WKTReader.Engine engine;
+
+    /**
+     * The WKTReader shared by all benchmark threads
+     */
+    private WKTReader reader;
+
+    @Setup
+    public void setUp() {
+        reader = new WKTReader(engine);
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        for (String wkt : WKTS) {
+            blackhole.consume(reader.read(wkt));
+        }
+    }
+
+    /**
+     * Run the benchmark with 1, 2, 4 ... threads up to the number of processors and print the throughput
+     * @param args The command line arguments (not used)
+     * @throws RunnerException if the benchmark can't be run
+     */
+    public static void main(String[] args) throws RunnerException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(WKTReaderBenchmark.class.getName())
+                    .threads(threads);
+            if (!System.getProperty("java.specification.version").startsWith("1.")) {
+                // parboiled defines its generated parser classes with reflection
+                options.jvmArgsAppend("--add-opens", "java.base/java.lang=ALL-UNNAMED");
+            }
+            for (RunResult result : new Runner(options.build()).run()) {
+                System.out.println(String.format("%s %d threads: %.0f ops/s",
+                        result.getParams().getParam("engine"), threads, result.getPrimaryResult().getScore()));
+            }
+            if (threads == processors) {
+                break;
+            }
+        }
+    }
+
+}
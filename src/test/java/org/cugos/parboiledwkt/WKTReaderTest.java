@@ -1,6 +1,18 @@
 package org.cugos.parboiledwkt;
 
 import org.junit.Test;
+import org.parboiled.Parboiled;
+import org.parboiled.parserunners.BasicParseRunner;
+import org.parboiled.support.ParsingResult;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.*;
 
 /**
@@ -27,4 +39,159 @@ public class WKTReaderTest {
         assertEquals(wkt, writer.write(cs));
     }
 
+    @Test
+    public void exponents() {
+        String wkt = "POINT (1.0E10 2.5E-7)";
+        assertEquals(wkt, writer.write(reader.read(wkt)));
+        assertEquals(wkt, writer.write(new WKTReader(WKTReader.Engine.Fast).read(wkt)));
+    }
+
+    @Test
+    public void bytes() throws Exception {
+        for (WKTReader.Engine engine : WKTReader.Engine.values()) {
+            WKTReader bytesReader = new WKTReader(engine);
+            byte[] bytes = "xxSRID=4326;LINESTRING (1 2, 3.5 -4)POINT (5 6)".getBytes("US-ASCII");
+            assertEquals("SRID=4326;LINESTRING (1.0 2.0, 3.5 -4.0)", writer.write(bytesReader.read(bytes, 2, 34)));
+            assertEquals("POINT (5.0 6.0)", writer.write(bytesReader.read("POINT (5 6)".getBytes("US-ASCII"))));
+            assertNull(bytesReader.read(bytes, 0, 10));
+            assertNull(bytesReader.read("POINT (1 \u00e9)".getBytes("UTF-8")));
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            buffer.position(36);
+            assertEquals("POINT (5.0 6.0)", writer.write(bytesReader.read(buffer)));
+            assertEquals(36, buffer.position());
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes);
+            direct.position(2);
+            direct.limit(36);
+            assertEquals("SRID=4326;LINESTRING (1.0 2.0, 3.5 -4.0)", writer.write(bytesReader.read(direct)));
+        }
+        try {
+            new WKTReader(WKTReader.Engine.Fast, true).read("POINT (1 2".getBytes("US-ASCII"));
+            fail("Invalid WKT should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Unable to parse WKT 'POINT (1 2'"));
+        }
+    }
+
+    @Test
+    public void probe() {
+        assertEquals(new GeometryHeader(WKB.GeometryType.Point, Dimension.Two, null), reader.probe("POINT (1 2)"));
+        assertEquals(new GeometryHeader(WKB.GeometryType.Point, Dimension.Two, null), reader.probe("POINT EMPTY"));
+        assertEquals(new GeometryHeader(WKB.GeometryType.LineString, Dimension.Three, "4326"),
+                reader.probe("SRID=4326;LINESTRING Z (1 2 3, 4 5 6)"));
+        assertEquals(new GeometryHeader(WKB.GeometryType.LineString, Dimension.TwoMeasured, null),
+                reader.probe("LINEARRING M (1 2 3"));
+        assertEquals(new GeometryHeader(WKB.GeometryType.MultiSurface, Dimension.ThreeMeasured, "2927"),
+                reader.probe(new StringBuilder("SRID=2927;MULTISURFACE ZM (CURVEPOLYGON")));
+        assertEquals(new GeometryHeader(WKB.GeometryType.Tin, Dimension.Two, null), reader.probe("TIN ((("));
+        assertEquals(WKB.GeometryType.GeometryCollection, reader.probe("GEOMETRYCOLLECTION(POINT(1 2))").getGeometryType());
+        assertNull(reader.probe("POINT"));
+        assertNull(reader.probe("POINT Q (1 2)"));
+        assertNull(reader.probe("SRID=;POINT (1 2)"));
+        assertNull(reader.probe("FOO (1 2)"));
+        assertNull(reader.probe(""));
+    }
+
+    @Test
+    public void invalid() {
+        assertNull(reader.read("POINT (1 2"));
+        assertNull(new WKTReader(WKTReader.Engine.Fast).read("POINT (1 2"));
+    }
+
+    @Test
+    public void diagnostics() {
+        for (WKTReader.Engine engine : WKTReader.Engine.values()) {
+            WKTReader diagnosticReader = new WKTReader(engine, true);
+            assertTrue(diagnosticReader.isDiagnostics());
+            assertEquals("POINT (1.0 2.0)", writer.write(diagnosticReader.read("POINT (1 2)")));
+            try {
+                diagnosticReader.read("POINT (1 2");
+                fail("Invalid WKT should throw an IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Unable to parse WKT 'POINT (1 2': Unexpected end of input"));
+            }
+        }
+    }
+
+    @Test
+    public void parseTree() {
+        BasicWKTParser basicParser = Parboiled.createParser(BasicWKTParser.class);
+        ParsingResult<Geometry> result = new BasicParseRunner<Geometry>(basicParser.WKT()).run("POINT (1 2)");
+        assertEquals("POINT (1.0 2.0)", writer.write(result.resultValue));
+        assertNull(result.parseTreeRoot);
+
+        WKTParser parser = Parboiled.createParser(WKTParser.class);
+        result = new BasicParseRunner<Geometry>(parser.WKT()).run("POINT (1 2)");
+        assertEquals("POINT (1.0 2.0)", writer.write(result.resultValue));
+        assertNotNull(result.parseTreeRoot);
+    }
+
+    @Test
+    public void threadSafe() throws Exception {
+        for (WKTReader.Engine engine : WKTReader.Engine.values()) {
+            final WKTReader sharedReader = new WKTReader(engine);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(executor.submit(new Callable<Boolean>() {
+                        @Override
+                        public Boolean call() {
+                            boolean same = true;
+                            for (int j = 0; j < 250; j++) {
+                                same &= "POINT Z (1.0 2.0 3.0)".equals(writer.write(sharedReader.read("POINT Z (1 2 3)")));
+                                same &= "SRID=4326;LINESTRING (1.0 2.0, 3.0 4.0)".equals(writer.write(sharedReader.read("SRID=4326;LINESTRING (1 2, 3 4)")));
+                                same &= "POLYGON M ((1.0 2.0 3.0, 4.0 5.0 6.0, 7.0 8.0 9.0, 1.0 2.0 3.0))".equals(
+                                        writer.write(sharedReader.read("POLYGON M ((1 2 3, 4 5 6, 7 8 9, 1 2 3))")));
+                            }
+                            return same;
+                        }
+                    }));
+                }
+                for (Future<Boolean> future : futures) {
+                    assertTrue(engine.name(), future.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void readWithEnvelope() {
+        Envelope envelope = new Envelope(0, 0, 10, 10);
+        for (WKTReader.Engine engine : WKTReader.Engine.values()) {
+            WKTReader reader = new WKTReader(engine);
+            assertNotNull(reader.read("LINESTRING (5 5, 20 20)", envelope));
+            assertNotNull(reader.read("POINT (10 10)", envelope));
+            assertNull(reader.read("LINESTRING (15 15, 20 20)", envelope));
+            assertNull(reader.read("GEOMETRYCOLLECTION (POINT (-1 -1), POINT (11 -1))", envelope));
+            assertNull(reader.read("POINT EMPTY", envelope));
+            // The arc dips into the envelope even though its Coordinates are all above it
+            assertNotNull(reader.read("CIRCULARSTRING (-4.8667723 16.4087889, -4.0932667 14.75, 14.8667723 16.4087889)", envelope));
+            assertNull(reader.read("NOT WKT", envelope));
+        }
+        // The Fast Engine only builds the Geometries that intersect
+        final int[] creates = new int[1];
+        WKTReader reader = new WKTReader(WKTReader.Engine.Fast, false, new CoordinateSequenceFactory() {
+            @Override
+            public CoordinateSequence create(double[] values, Dimension dimension) {
+                creates[0]++;
+                return PackedCoordinateSequence.FACTORY.create(values, dimension);
+            }
+        });
+        assertNull(reader.read("MULTILINESTRING ((15 15, 20 20), (12 -5, 30 -1))", envelope));
+        assertEquals(0, creates[0]);
+        Geometry geometry = reader.read("MULTILINESTRING ((15 15, 20 20), (5 5, 1 1))", envelope);
+        assertEquals(2, creates[0]);
+        assertEquals(new WKTWriter().write(reader.read("MULTILINESTRING ((15 15, 20 20), (5 5, 1 1))")), new WKTWriter().write(geometry));
+        try {
+            new WKTReader(WKTReader.Engine.Fast, true).read("NOT WKT", envelope);
+            fail("Invalid WKT should throw an IllegalArgumentException with diagnostics");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package org.cugos.parboiledwkt;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+/**
+ * The WKTStreamReader Unit Test
+ * @author Jared Erickson
+ */
+public class WKTStreamReaderTest {
+
+    private final WKTWriter writer = new WKTWriter();
+
+    @Test
+    public void newLines() throws Exception {
+        List<String> wkts = readAll(new WKTStreamReader(new StringReader(
+                "POINT (1 2)\nLINESTRING (1 2, 3 4)\r\n\r\nSRID=4326;POINT Z (1 2 3)\n")));
+        assertEquals(3, wkts.size());
+        assertEquals("POINT (1.0 2.0)", wkts.get(0));
+        assertEquals("LINESTRING (1.0 2.0, 3.0 4.0)", wkts.get(1));
+        assertEquals("SRID=4326;POINT Z (1.0 2.0 3.0)", wkts.get(2));
+    }
+
+    @Test
+    public void semicolons() throws Exception {
+        List<String> wkts = readAll(new WKTStreamReader(new StringReader(
+                "POINT (1 2);SRID=4326;POINT (3 4); ;GEOMETRYCOLLECTION (SRID=2927;POINT (5 6));SRID=4326;LINESTRING (1 2, 3 4)")));
+        assertEquals(4, wkts.size());
+        assertEquals("POINT (1.0 2.0)", wkts.get(0));
+        assertEquals("SRID=4326;POINT (3.0 4.0)", wkts.get(1));
+        assertEquals("GEOMETRYCOLLECTION (POINT (5.0 6.0))", wkts.get(2));
+        assertEquals("SRID=4326;LINESTRING (1.0 2.0, 3.0 4.0)", wkts.get(3));
+    }
+
+    @Test
+    public void inputStream() throws Exception {
+        WKTStreamReader reader = new WKTStreamReader(new ByteArrayInputStream("POINT (1 2)\nPOINT (3 4)".getBytes("UTF-8")),
+                new WKTReader(WKTReader.Engine.Fast));
+        List<String> wkts = readAll(reader);
+        assertEquals(2, wkts.size());
+        assertEquals("POINT (3.0 4.0)", wkts.get(1));
+    }
+
+    @Test
+    public void largerThanBuffer() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("POINT (").append(i).append(" ").append(i).append(")\n");
+        }
+        List<String> wkts = readAll(new WKTStreamReader(new StringReader(builder.toString())));
+        assertEquals(5000, wkts.size());
+        assertEquals("POINT (4999.0 4999.0)", wkts.get(4999));
+    }
+
+    @Test
+    public void empty() throws Exception {
+        WKTStreamReader reader = new WKTStreamReader(new StringReader("\n \n"));
+        assertFalse(reader.hasNext());
+        try {
+            reader.next();
+            fail("next() should throw a NoSuchElementException");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void invalid() throws Exception {
+        WKTStreamReader reader = new WKTStreamReader(new StringReader("POINT (1\nPOINT (1 2)"));
+        assertNull(reader.next());
+        assertEquals("POINT (1.0 2.0)", writer.write(reader.next()));
+        assertFalse(reader.hasNext());
+        reader = new WKTStreamReader(new StringReader("POINT (1\nPOINT (1 2)"), new WKTReader(WKTReader.Engine.Fast, true));
+        try {
+            reader.next();
+            fail("Invalid WKT should throw an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private List<String> readAll(WKTStreamReader reader) throws Exception {
+        List<String> wkts = new ArrayList<String>();
+        try {
+            while (reader.hasNext()) {
+                wkts.add(writer.write(reader.next()));
+            }
+        } finally {
+            reader.close();
+        }
+        return wkts;
+    }
+
+}